@@ -0,0 +1,79 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import cn.dev33.satoken.util.SaResult;
+import cn.hutool.core.util.ZipUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tech.sjiale.hoyo_achievement_server.entity.SrAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAchievement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the achievement lists into a SaResult body with the same Jackson setup as the application
+ * (spring.jackson.property-naming-strategy=SNAKE_CASE), with and without the gzip step the catalog payloads add.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogSerializationBenchmark {
+
+    @Param({"1000", "5000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<SrAchievement> srAchievements;
+    private List<ZzzAchievement> zzzAchievements;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build();
+
+        srAchievements = new ArrayList<>(size);
+        zzzAchievements = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            SrAchievement sr = new SrAchievement();
+            sr.setAchievementId(id);
+            sr.setClassName("class " + id % 20);
+            sr.setName("成就 " + id);
+            sr.setDescription("完成第 " + id + " 个成就的描述文本，长度与真实数据相近。");
+            sr.setRewardLevel(id % 3 + 1);
+            sr.setGameVersion("2." + id % 8);
+            srAchievements.add(sr);
+
+            ZzzAchievement zzz = new ZzzAchievement();
+            zzz.setAchievementId(id);
+            zzz.setClassId(id % 20);
+            zzz.setName("成就 " + id);
+            zzz.setDescription("完成第 " + id + " 个成就的描述文本，长度与真实数据相近。");
+            zzz.setRewardLevel(id % 3 + 1);
+            zzz.setGameVersion("1." + id % 8);
+            zzzAchievements.add(zzz);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeSr() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(SaResult.ok("SR成就列表获取成功").setData(srAchievements));
+    }
+
+    @Benchmark
+    public byte[] serializeZzz() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(SaResult.ok("ZZZ成就列表获取成功").setData(zzzAchievements));
+    }
+
+    @Benchmark
+    public byte[] serializeAndGzipSr() throws JsonProcessingException {
+        return ZipUtil.gzip(objectMapper.writeValueAsBytes(SaResult.ok("SR成就列表获取成功").setData(srAchievements)));
+    }
+}
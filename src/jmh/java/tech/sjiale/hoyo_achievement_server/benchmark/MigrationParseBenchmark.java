@@ -0,0 +1,85 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.crypto.SecureUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.sjiale.hoyo_achievement_server.dto.MigrationHeader;
+import tech.sjiale.hoyo_achievement_server.entity.SrAchievement;
+import tech.sjiale.hoyo_achievement_server.util.MigrationJsonReader;
+import tech.sjiale.hoyo_achievement_server.util.MigrationRowBinders;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a synthetic migration file the way MigrationServiceImpl.handleJSONFile does, without the database writes:
+ * the header pass that hashes the whole file, then the streaming pass that binds every row in chunks of 500.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class MigrationParseBenchmark {
+
+    // Same as MigrationServiceImpl.ROW_CHUNK_SIZE
+    private static final int ROW_CHUNK_SIZE = 500;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = Files.createTempFile("migration-benchmark-", ".json");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"name\":\"benchmark_" + rows + "\",\"type\":\"data\",\"depends\":[],");
+            writer.write("\"payload\":{\"operations\":[{\"action\":\"insert\",\"table\":\"sr_achievement\",\"values\":[");
+            for (int id = 1; id <= rows; id++) {
+                if (id > 1) writer.write(',');
+                writer.write("{\"achievement_id\":" + id + ",\"class_name\":\"class " + id % 20
+                        + "\",\"name\":\"成就 " + id + "\",\"description\":\"完成第 " + id
+                        + " 个成就的描述文本\",\"reward_level\":" + (id % 3 + 1)
+                        + ",\"game_version\":\"2." + id % 8 + "\"}");
+            }
+            writer.write("]}]}}");
+        }
+    }
+
+    @Benchmark
+    public String readHeaderAndHash() throws IOException {
+        MessageDigest digest = SecureUtil.createJdkMessageDigest("SHA-256");
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(file)), digest)) {
+            MigrationHeader header = MigrationJsonReader.readHeader(in);
+            in.transferTo(OutputStream.nullOutputStream());
+            return header.name() + HexUtil.encodeHexStr(digest.digest());
+        }
+    }
+
+    @Benchmark
+    public boolean readAndBindRows(Blackhole blackhole) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return MigrationJsonReader.readOperations(in, ROW_CHUNK_SIZE, operation -> {
+                for (Map<String, Object> row : operation.values()) {
+                    SrAchievement achievement = MigrationRowBinders.SR_ACHIEVEMENT.toBean(row);
+                    blackhole.consume(MigrationRowBinders.SR_ACHIEVEMENT.hasMissingField(achievement));
+                }
+                return true;
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,103 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.BenchmarkDataConfig;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.BenchmarkSchema;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.RoundTripCounter;
+import tech.sjiale.hoyo_achievement_server.service.SrAchievementService;
+import tech.sjiale.hoyo_achievement_server.service.SrAchievementServiceImpl;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Migration patch of SR achievements: every row changes its description and every 10th row changes its id. The
+ * "statements" counter is the number of JDBC round-trips, summed over the measurement iterations with one patch per
+ * iteration; it should not grow with the patch size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MigrationUpdateBenchmark {
+
+    // Offset added to ids on every other iteration, so each patch has real id changes to apply
+    private static final int ID_OFFSET = 1_000_000;
+
+    @Param({"100", "500", "2000"})
+    public int patchSize;
+
+    private AnnotationConfigApplicationContext context;
+    private SrAchievementService srAchievementService;
+    private RoundTripCounter counter;
+
+    private List<Map<String, Object>> patch;
+    private boolean shifted;
+    private int iteration;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+        public long statements;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(BenchmarkDataConfig.class, SrAchievementServiceImpl.class);
+        srAchievementService = context.getBean(SrAchievementService.class);
+        counter = context.getBean(RoundTripCounter.class);
+
+        BenchmarkSchema.create(new JdbcTemplate(context.getBean(DataSource.class)), "sr_achievement");
+
+        List<Map<String, Object>> rows = new ArrayList<>(patchSize);
+        for (int id = 1; id <= patchSize; id++) {
+            rows.add(Map.of("achievement_id", id, "class_name", "class", "name", "achievement " + id,
+                    "description", "initial", "reward_level", 1, "game_version", "1.0"));
+        }
+        srAchievementService.insertAchievementBatch(rows);
+    }
+
+    @Setup(Level.Iteration)
+    public void preparePatch() {
+        patch = new ArrayList<>(patchSize);
+        for (int id = 1; id <= patchSize; id++) {
+            Map<String, Object> row = new HashMap<>();
+            boolean moves = id % 10 == 0;
+            int current = moves && shifted ? id + ID_OFFSET : id;
+            row.put("record_id", current);
+            row.put("description", "iteration " + iteration);
+            if (moves) {
+                row.put("achievement_id", shifted ? id : id + ID_OFFSET);
+            }
+            patch.add(row);
+        }
+        shifted = !shifted;
+        iteration++;
+    }
+
+    @Benchmark
+    public Object updateAchievementBatch(RoundTrips roundTrips) {
+        long before = counter.statements();
+        Object response = srAchievementService.updateAchievementBatch(patch);
+        roundTrips.statements += counter.statements() - before;
+        return response;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,53 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.sjiale.hoyo_achievement_server.util.ParameterChecker;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request parameter validation, run on every login, register and account request; each operation checks a mix of
+ * valid and invalid inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParameterCheckerBenchmark {
+
+    private final String[] usernames = {"player_one", "用户名测试", "ab", "name with space", "x".repeat(40)};
+    private final String[] passwords = {"Passw0rd!", "password", "Short1!", "NoDigitsHere!", "Aa1!".repeat(8)};
+    private final String[] uuids = {"6f1c2a9e-4a8b-4c1d-9e2f-3b4c5d6e7f80", "not-a-uuid", ""};
+    private final String[] accountNames = {"主账号", "alt account", ""};
+    private final String[] inGameUids = {"100000001", "12ab", ""};
+
+    @Benchmark
+    public void username(Blackhole blackhole) {
+        for (String username : usernames) {
+            blackhole.consume(ParameterChecker.isUsernameInvalid(username));
+        }
+    }
+
+    @Benchmark
+    public void password(Blackhole blackhole) {
+        for (String password : passwords) {
+            blackhole.consume(ParameterChecker.isPasswordInvalid(password));
+        }
+    }
+
+    @Benchmark
+    public void account(Blackhole blackhole) {
+        for (String uuid : uuids) {
+            blackhole.consume(ParameterChecker.isAccountUuidInvalid(uuid));
+        }
+        for (String accountName : accountNames) {
+            blackhole.consume(ParameterChecker.isAccountNameInvalid(accountName));
+        }
+        for (String inGameUid : inGameUids) {
+            blackhole.consume(ParameterChecker.isAccountInGameUidInvalid(inGameUid));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.bean.copier.CopyOptions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import tech.sjiale.hoyo_achievement_server.entity.SrAchievement;
+import tech.sjiale.hoyo_achievement_server.util.MigrationRowBinders;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binding a chunk of migration rows to SR achievements: Hutool BeanUtil, as the batch handlers used to do, against
+ * the typed row binders. Run with -prof gc to compare allocation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowBinderBenchmark {
+
+    // Same as the chunk size of the migration reader
+    private static final int ROWS = 500;
+
+    private List<Map<String, Object>> insertRows;
+    private List<Map<String, Object>> updateRows;
+    private SrAchievement target;
+
+    @Setup
+    public void setUp() {
+        insertRows = new ArrayList<>(ROWS);
+        updateRows = new ArrayList<>(ROWS);
+        for (int id = 1; id <= ROWS; id++) {
+            Map<String, Object> insert = new HashMap<>();
+            insert.put("achievement_id", id);
+            insert.put("class_name", "class");
+            insert.put("name", "achievement " + id);
+            insert.put("description", "description of achievement " + id);
+            insert.put("reward_level", 1);
+            insert.put("game_version", "3.2");
+            insertRows.add(insert);
+
+            Map<String, Object> update = new HashMap<>();
+            update.put("record_id", id);
+            update.put("description", "updated description " + id);
+            update.put("game_version", "3.3");
+            updateRows.add(update);
+        }
+
+        target = MigrationRowBinders.SR_ACHIEVEMENT.toBean(insertRows.getFirst());
+    }
+
+    @Benchmark
+    public void insertBeanUtil(Blackhole blackhole) {
+        for (Map<String, Object> row : insertRows) {
+            SrAchievement achievement = BeanUtil.toBean(row, SrAchievement.class);
+            blackhole.consume(BeanUtil.hasNullField(achievement));
+            blackhole.consume(achievement);
+        }
+    }
+
+    @Benchmark
+    public void insertBinder(Blackhole blackhole) {
+        for (Map<String, Object> row : insertRows) {
+            SrAchievement achievement = MigrationRowBinders.SR_ACHIEVEMENT.toBean(row);
+            blackhole.consume(MigrationRowBinders.SR_ACHIEVEMENT.hasMissingField(achievement));
+            blackhole.consume(achievement);
+        }
+    }
+
+    @Benchmark
+    public SrAchievement updateBeanUtil() {
+        CopyOptions options = CopyOptions.create()
+                .setIgnoreNullValue(true)
+                .setIgnoreCase(true)
+                .setIgnoreError(true);
+        for (Map<String, Object> row : updateRows) {
+            BeanUtil.fillBeanWithMap(row, target, options);
+        }
+        return target;
+    }
+
+    @Benchmark
+    public SrAchievement updateBinder() {
+        for (Map<String, Object> row : updateRows) {
+            MigrationRowBinders.SR_ACHIEVEMENT.fill(row, target);
+        }
+        return target;
+    }
+}
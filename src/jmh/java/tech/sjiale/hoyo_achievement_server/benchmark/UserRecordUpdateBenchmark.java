@@ -0,0 +1,106 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.BenchmarkDataConfig;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.BenchmarkSchema;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.RoundTripCounter;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.service.*;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marking one SR achievement of an account as complete or incomplete through SrUserRecordServiceImpl, with the real
+ * services and mappers on an in-memory MySQL-mode H2. Every 10th achievement belongs to a branch of three, so its
+ * siblings are written as well. The "statements" and "calls" counters are summed over the measurement iterations;
+ * their ratio is the number of JDBC round-trips per update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserRecordUpdateBenchmark {
+
+    private static final int ACHIEVEMENTS = 2000;
+    private static final String UUID = "6f1c2a9e-4a8b-4c1d-9e2f-3b4c5d6e7f80";
+
+    private AnnotationConfigApplicationContext context;
+    private SrUserRecordService srUserRecordService;
+    private RoundTripCounter counter;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RoundTrips {
+        public long statements;
+        public long calls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            statements = 0;
+            calls = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(BenchmarkDataConfig.class, AuthContextServiceImpl.class, AccountServiceImpl.class,
+                SrAchievementServiceImpl.class, SrBranchServiceImpl.class, ZzzAchievementServiceImpl.class,
+                ZzzBranchServiceImpl.class, CatalogServiceImpl.class, RarityServiceImpl.class, SrUserRecordServiceImpl.class);
+        context.registerBean(ObjectMapper.class, () -> Jackson2ObjectMapperBuilder.json()
+                .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .build());
+        context.refresh();
+        srUserRecordService = context.getBean(SrUserRecordService.class);
+        counter = context.getBean(RoundTripCounter.class);
+
+        JdbcTemplate jdbc = new JdbcTemplate(context.getBean(DataSource.class));
+        BenchmarkSchema.create(jdbc, "account", "sr_achievement", "sr_branch", "sr_user_record",
+                "sr_account_summary", "achievement_stats", "zzz_achievement", "zzz_branch");
+        jdbc.update("INSERT INTO account (account_uuid, user_id, game_type, account_name) VALUES (?, 1, 'SR', 'main')",
+                UUID);
+        for (int id = 1; id <= ACHIEVEMENTS; id++) {
+            jdbc.update("""
+                    INSERT INTO sr_achievement (achievement_id, class_name, name, description, reward_level, game_version)
+                    VALUES (?, 'class', ?, 'description', 1, '1.0')""", id, "achievement " + id);
+            if (id % 10 == 0 && id + 2 <= ACHIEVEMENTS) {
+                for (int sibling = id; sibling <= id + 2; sibling++) {
+                    jdbc.update("INSERT INTO sr_branch (achievement_id, branch_id) VALUES (?, ?)", sibling, id);
+                }
+            }
+        }
+
+        ServiceResponse<?> response = context.getBean(CatalogService.class).refreshCatalog();
+        if (!response.success()) {
+            throw new IllegalStateException(response.message());
+        }
+    }
+
+    @Benchmark
+    public Object updateRecordById(RoundTrips roundTrips) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long before = counter.statements();
+        ServiceResponse<?> response = srUserRecordService.updateRecordById(UUID, random.nextInt(1, ACHIEVEMENTS + 1),
+                random.nextInt(2));
+        roundTrips.statements += counter.statements() - before;
+        roundTrips.calls++;
+        if (!response.success()) {
+            throw new IllegalStateException(response.message());
+        }
+        return response;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+}
@@ -0,0 +1,139 @@
+package tech.sjiale.hoyo_achievement_server.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.sjiale.hoyo_achievement_server.benchmark.support.BenchmarkSchema;
+import tech.sjiale.hoyo_achievement_server.util.JdbcPermitDataSource;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of concurrent requests on the default platform request pool against virtual threads, with and without the
+ * JDBC permit semaphore. Each request blocks outside the database for ioMillis, then holds a connection of a
+ * 10-connection Hikari pool for dbMillis, standing in for a MySQL round-trip. The score is the time to serve the
+ * whole burst; "failures" counts requests that timed out waiting for a connection, summed over iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    // Same as spring.datasource.hikari.maximum-pool-size
+    private static final int POOL_SIZE = 10;
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = 200;
+    private static final int ACHIEVEMENTS = 1000;
+
+    @Param({"platform", "virtual", "virtual-permits"})
+    public String mode;
+
+    // The larger burst needs longer than the connection timeout to drain through the pool
+    @Param({"2000", "30000"})
+    public int requests;
+
+    @Param({"20"})
+    public int ioMillis;
+
+    @Param({"1"})
+    public int dbMillis;
+
+    private HikariDataSource pool;
+    private JdbcTemplate jdbc;
+    private ExecutorService executor;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Failures {
+        public long failures;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            failures = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setMinimumIdle(POOL_SIZE);
+        // Short enough for a burst to show timeouts without the semaphore
+        config.setConnectionTimeout(2000);
+        pool = new HikariDataSource(config);
+
+        DataSource dataSource = mode.equals("virtual-permits")
+                ? new JdbcPermitDataSource(pool, POOL_SIZE, 60000)
+                : pool;
+        jdbc = new JdbcTemplate(dataSource);
+        BenchmarkSchema.create(jdbc, "sr_achievement");
+        for (int id = 1; id <= ACHIEVEMENTS; id++) {
+            jdbc.update("""
+                    INSERT INTO sr_achievement (achievement_id, class_name, name, description, reward_level, game_version)
+                    VALUES (?, 'class', ?, 'description', 1, '1.0')""", id, "achievement " + id);
+        }
+
+        executor = mode.equals("platform")
+                ? Executors.newFixedThreadPool(PLATFORM_THREADS)
+                : Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @Benchmark
+    public long serveBurst(Failures failures) throws InterruptedException {
+        List<Future<Integer>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            int achievementId = i % ACHIEVEMENTS + 1;
+            futures.add(executor.submit(() -> handleRequest(achievementId)));
+        }
+
+        long served = 0;
+        for (Future<Integer> future : futures) {
+            try {
+                served += future.get();
+            } catch (ExecutionException e) {
+                failures.failures++;
+            }
+        }
+        return served;
+    }
+
+    private int handleRequest(int achievementId) throws InterruptedException {
+        Thread.sleep(ioMillis);
+        return jdbc.execute((ConnectionCallback<Integer>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT reward_level FROM sr_achievement WHERE achievement_id = ?")) {
+                statement.setInt(1, achievementId);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    int rewardLevel = resultSet.getInt(1);
+                    Thread.sleep(dbMillis);
+                    return rewardLevel;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+}
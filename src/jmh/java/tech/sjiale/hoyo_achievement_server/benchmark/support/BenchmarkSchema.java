@@ -0,0 +1,89 @@
+package tech.sjiale.hoyo_achievement_server.benchmark.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+
+/**
+ * Tables of the benchmark database, reduced to the columns and keys the services use; the real schema is managed by
+ * Liquibase and is MySQL-only
+ */
+public class BenchmarkSchema {
+
+    private static final Map<String, String> TABLES = Map.of(
+            "account", """
+                    CREATE TABLE account (
+                        account_uuid VARCHAR(512) PRIMARY KEY,
+                        user_id BIGINT NOT NULL,
+                        game_type VARCHAR(16) NOT NULL,
+                        account_name VARCHAR(64),
+                        account_in_game_uid VARCHAR(128),
+                        record_seq BIGINT NOT NULL DEFAULT 0
+                    )""",
+            "sr_achievement", """
+                    CREATE TABLE sr_achievement (
+                        achievement_id INT PRIMARY KEY,
+                        class_name VARCHAR(64) NOT NULL,
+                        name VARCHAR(128) NOT NULL,
+                        description VARCHAR(256) NOT NULL,
+                        reward_level INT NOT NULL DEFAULT 1,
+                        game_version VARCHAR(16) NOT NULL
+                    )""",
+            "sr_branch", """
+                    CREATE TABLE sr_branch (
+                        achievement_id INT PRIMARY KEY,
+                        branch_id INT NOT NULL
+                    )""",
+            "sr_user_record", """
+                    CREATE TABLE sr_user_record (
+                        account_uuid VARCHAR(512) NOT NULL,
+                        achievement_id INT NOT NULL,
+                        complete INT DEFAULT 0,
+                        seq BIGINT NOT NULL DEFAULT 0,
+                        PRIMARY KEY (account_uuid, achievement_id)
+                    )""",
+            "sr_account_summary", """
+                    CREATE TABLE sr_account_summary (
+                        account_uuid VARCHAR(512) NOT NULL,
+                        dimension VARCHAR(16) NOT NULL,
+                        dim_key VARCHAR(64) NOT NULL,
+                        completed INT NOT NULL DEFAULT 0,
+                        reward BIGINT NOT NULL DEFAULT 0,
+                        PRIMARY KEY (account_uuid, dimension, dim_key)
+                    )""",
+            "achievement_stats", """
+                    CREATE TABLE achievement_stats (
+                        game_type VARCHAR(24) NOT NULL,
+                        achievement_id INT NOT NULL,
+                        completed BIGINT NOT NULL DEFAULT 0,
+                        PRIMARY KEY (game_type, achievement_id)
+                    )""",
+            "zzz_achievement", """
+                    CREATE TABLE zzz_achievement (
+                        achievement_id INT PRIMARY KEY,
+                        class_id INT NOT NULL,
+                        name VARCHAR(128) NOT NULL,
+                        description VARCHAR(256) NOT NULL,
+                        reward_level INT NOT NULL DEFAULT 1,
+                        game_version VARCHAR(16) NOT NULL
+                    )""",
+            "zzz_branch", """
+                    CREATE TABLE zzz_branch (
+                        achievement_id INT PRIMARY KEY,
+                        branch_id INT NOT NULL
+                    )"""
+    );
+
+    /**
+     * Drop and create tables
+     *
+     * @param jdbc   JdbcTemplate of the benchmark database
+     * @param tables table names
+     */
+    public static void create(JdbcTemplate jdbc, String... tables) {
+        for (String table : tables) {
+            jdbc.execute("DROP TABLE IF EXISTS " + table);
+            jdbc.execute(TABLES.get(table));
+        }
+    }
+}
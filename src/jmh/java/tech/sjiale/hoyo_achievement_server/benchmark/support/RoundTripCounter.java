@@ -0,0 +1,67 @@
+package tech.sjiale.hoyo_achievement_server.benchmark.support;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps a DataSource and counts statement executions; a JDBC batch counts as one, since the MySQL driver sends it
+ * in one round-trip with rewriteBatchedStatements
+ */
+public class RoundTripCounter {
+
+    private final AtomicLong statements = new AtomicLong();
+
+    /**
+     * Get the number of statement executions so far
+     *
+     * @return count
+     */
+    public long statements() {
+        return statements.get();
+    }
+
+    /**
+     * Wrap a DataSource so every connection it returns is counted
+     *
+     * @param target real DataSource
+     * @return counting DataSource
+     */
+    public DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target, (result, method) ->
+                result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatement) : result);
+    }
+
+    private Object wrapStatement(Object result, Method method) {
+        if (result instanceof Statement statement) {
+            Class<? extends Statement> type = method.getReturnType().asSubclass(Statement.class);
+            return proxy(type, statement, (value, called) -> {
+                if (called.getName().startsWith("execute")) {
+                    statements.incrementAndGet();
+                }
+                return value;
+            });
+        }
+        return result;
+    }
+
+    private interface ResultMapper {
+        Object map(Object result, Method method);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultMapper mapper) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return mapper.map(method.invoke(target, args), method);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
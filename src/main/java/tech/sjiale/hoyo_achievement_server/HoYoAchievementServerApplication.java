@@ -3,11 +3,13 @@ package tech.sjiale.hoyo_achievement_server;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import lombok.extern.slf4j.Slf4j;
 
 @SpringBootApplication
 @Slf4j
 @MapperScan("tech.sjiale.hoyo_achievement_server.mapper")
+@EnableScheduling
 public class HoYoAchievementServerApplication {
 
     public static void main(String[] args) {
@@ -12,14 +12,15 @@ import org.springframework.web.server.ResponseStatusException;
 import tech.sjiale.hoyo_achievement_server.dto.account_request.AccountCreateRequest;
 import tech.sjiale.hoyo_achievement_server.dto.account_request.AccountUpdateNameRequest;
 import tech.sjiale.hoyo_achievement_server.dto.account_request.AccountUpdateUidRequest;
+import tech.sjiale.hoyo_achievement_server.dto.AuthContext;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.dto.account_request.AccountDeleteRequest;
 import tech.sjiale.hoyo_achievement_server.entity.Account;
-import tech.sjiale.hoyo_achievement_server.entity.User;
-import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
 import tech.sjiale.hoyo_achievement_server.service.AccountService;
-import tech.sjiale.hoyo_achievement_server.service.UserService;
+import tech.sjiale.hoyo_achievement_server.service.AuthContextService;
 import tech.sjiale.hoyo_achievement_server.util.ParameterChecker;
+import tech.sjiale.hoyo_achievement_server.util.RequestTiming;
+import tech.sjiale.hoyo_achievement_server.util.StpLogicForSignedToken;
 
 import java.util.List;
 import java.util.Objects;
@@ -31,7 +32,7 @@ import java.util.Objects;
 public class AccountController {
 
     private final AccountService accountService;
-    private final UserService userService;
+    private final AuthContextService authContextService;
 
     /**
      * Get all accounts by user id;
@@ -71,11 +72,6 @@ public class AccountController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
-        }
-
         // Valid
         if (ParameterChecker.isAccountUuidInvalid(account.getAccountUuid())
                 || ParameterChecker.isAccountNameInvalid(account.getAccountName())
@@ -132,11 +128,6 @@ public class AccountController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
-        }
-
         // Check if the account uuid belongs to the user
         if (isUserNotOwnAccount(userId, req.getAccountUuid())) {
             return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
@@ -168,11 +159,6 @@ public class AccountController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
-        }
-
         // Check if the account uuid belongs to the user
         if (isUserNotOwnAccount(userId, req.getAccountUuid())) {
             return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
@@ -204,11 +190,6 @@ public class AccountController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
-        }
-
         // Check if the account uuid belongs to the user
         if (isUserNotOwnAccount(userId, req.getAccountUuid())) {
             return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
@@ -228,20 +209,10 @@ public class AccountController {
      * @return true if the user doesn't own the account, false otherwise
      */
     private boolean isUserNotOwnAccount(Long userId, String accountUuid) {
-        // Get all accounts by user id
-        ServiceResponse<List<Account>> response = accountService.getAllAccountsByUserId(userId);
-        if (!response.success()) {
-            log.error(response.message());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, response.message());
-        }
-
         // Check if the account uuid belongs to the user
-        boolean ownUuid = false;
-        for (Account account : response.data()) {
-            if (account.getAccountUuid().equals(accountUuid)) {
-                ownUuid = true;
-                break;
-            }
+        boolean ownUuid;
+        try (RequestTiming.Span span = RequestTiming.span("ownership")) {
+            ownUuid = getAuthContext(userId).ownsAccount(accountUuid);
         }
         if (!ownUuid) {
             log.error("User {} doesn't own account {}.", userId, accountUuid);
@@ -250,25 +221,18 @@ public class AccountController {
     }
 
     /**
-     * Helper method to check if the user is disabled
+     * Helper method to get the cached authorization context of the user, at least as new as the login
      *
      * @param userId user id
-     * @return true if disabled, false otherwise
+     * @return AuthContext
      */
-    private boolean isUserDisabled(Long userId) {
-        // Get user info
-        ServiceResponse<User> userResponse = userService.getUserById(userId);
-        if (!userResponse.success()) {
-            log.error(userResponse.message());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, userResponse.message());
-        }
-
-        // Check if the user is disabled
-        User user = userResponse.data();
-        if (user.getStatus() == UserStatus.DISABLED) {
-            log.error("User {} is disabled.", userId);
-            return true;
+    private AuthContext getAuthContext(Long userId) {
+        ServiceResponse<AuthContext> response = authContextService.getAuthContext(userId,
+                StpLogicForSignedToken.currentAccountEpoch());
+        if (!response.success()) {
+            log.error(response.message());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, response.message());
         }
-        return false;
+        return response.data();
     }
 }
@@ -1,15 +1,22 @@
 package tech.sjiale.hoyo_achievement_server.controller;
 
+import cn.dev33.satoken.annotation.SaCheckLogin;
+import cn.dev33.satoken.annotation.SaCheckRole;
+import cn.dev33.satoken.annotation.SaMode;
 import cn.dev33.satoken.util.SaResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.dto.SqlStatementStats;
 import tech.sjiale.hoyo_achievement_server.entity.ServerInfo;
+import tech.sjiale.hoyo_achievement_server.service.RarityService;
 import tech.sjiale.hoyo_achievement_server.service.ServerInfoService;
+import tech.sjiale.hoyo_achievement_server.util.SqlStatsInterceptor;
 
 import java.util.List;
 
@@ -20,6 +27,8 @@ import java.util.List;
 public class ServerInfoController {
 
     private final ServerInfoService serverInfoService;
+    private final SqlStatsInterceptor sqlStatsInterceptor;
+    private final RarityService rarityService;
 
     /**
      * Get all server info
@@ -54,4 +63,36 @@ public class ServerInfoController {
             return SaResult.error("获取最新服务器信息失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
     }
+
+    /**
+     * Get the timing statistics of every mapper statement since startup;
+     * Should only be called by admin or root
+     *
+     * @return SaResult with a list of SqlStatementStats
+     */
+    @GetMapping("/sql-stats")
+    @SaCheckLogin
+    @SaCheckRole(value = {"ADMIN", "ROOT"}, mode = SaMode.OR)
+    public SaResult sqlStats() {
+        List<SqlStatementStats> stats = sqlStatsInterceptor.snapshot();
+        return SaResult.ok("获取SQL统计成功").setData(stats);
+    }
+
+    /**
+     * Recount the achievement rarity from all user records; a full scan of the record tables.
+     * Should only be called by admin or root
+     *
+     * @return SaResult
+     */
+    @PostMapping("/rarity/rebuild")
+    @SaCheckLogin
+    @SaCheckRole(value = {"ADMIN", "ROOT"}, mode = SaMode.OR)
+    public SaResult rebuildRarity() {
+        ServiceResponse<?> response = rarityService.rebuild();
+        if (!response.success()) {
+            log.error(response.message());
+            return SaResult.error("成就稀有度重建失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+        return SaResult.ok("成就稀有度重建成功");
+    }
 }
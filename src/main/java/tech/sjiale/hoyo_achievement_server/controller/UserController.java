@@ -5,12 +5,12 @@ import cn.dev33.satoken.annotation.SaCheckRole;
 import cn.dev33.satoken.annotation.SaCheckSafe;
 import cn.dev33.satoken.annotation.SaMode;
 import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.stp.parameter.SaLoginParameter;
 import cn.dev33.satoken.util.SaResult;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import tech.sjiale.hoyo_achievement_server.dto.user_request.UserExposeDto;
@@ -18,8 +18,12 @@ import tech.sjiale.hoyo_achievement_server.dto.user_request.*;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.User;
 import tech.sjiale.hoyo_achievement_server.entity.nume.UserRole;
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
+import tech.sjiale.hoyo_achievement_server.service.LoginThrottleService;
+import tech.sjiale.hoyo_achievement_server.service.PasswordService;
 import tech.sjiale.hoyo_achievement_server.service.UserService;
 import tech.sjiale.hoyo_achievement_server.util.ParameterChecker;
+import tech.sjiale.hoyo_achievement_server.util.StpLogicForSignedToken;
 
 import java.util.HashMap;
 import java.util.List;
@@ -32,15 +36,18 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final PasswordService passwordService;
+    private final LoginThrottleService loginThrottleService;
 
     /**
      * Login
      *
-     * @param request login request with username and password
+     * @param request     login request with username and password
+     * @param httpRequest servlet request, for the client IP
      * @return SaResult with token
      */
     @PostMapping("login")
-    public SaResult doLogin(@RequestBody LoginRequest request) {
+    public SaResult doLogin(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         // Check if the username and password are valid
         if (ParameterChecker.isUsernameInvalid(request.getUsername()) ||
                 ParameterChecker.isPasswordInvalid(request.getPassword())) {
@@ -48,6 +55,13 @@ public class UserController {
             return SaResult.error("用户名或密码格式错误").setCode(HttpStatus.BAD_REQUEST.value());
         }
 
+        // Throttle attempts before any lookup or hashing
+        ServiceResponse<?> throttleResponse = loginThrottleService.tryAcquire(request.getUsername(),
+                httpRequest.getRemoteAddr());
+        if (!throttleResponse.success()) {
+            return SaResult.error("尝试次数过多，请稍后再试").setCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        }
+
         // Check if the user exists
         ServiceResponse<User> userResponse = userService.getUserByName(request.getUsername());
         if (!userResponse.success()) {
@@ -56,18 +70,45 @@ public class UserController {
         }
 
         // Check if the password matches
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        if (!passwordEncoder.matches(request.getPassword(), userResponse.data().getPassword())) {
+        if (!passwordService.matches(request.getPassword(), userResponse.data().getPassword())) {
             log.error("Password doesn't match.");
             return SaResult.error("登录失败").setCode(HttpStatus.UNAUTHORIZED.value());
         }
+        loginThrottleService.reset(request.getUsername());
+
+        // Check if the user is disabled
+        if (userResponse.data().getStatus() == UserStatus.DISABLED) {
+            log.warn("User {} is disabled.", userResponse.data().getId());
+            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
+        }
 
-        // Login
-        StpUtil.login(userResponse.data().getId());
+        // Move the hash to the current strength; the login doesn't depend on it
+        if (passwordService.needsRehash(userResponse.data().getPassword())) {
+            ServiceResponse<?> rehashResponse = userService.rehashPassword(userResponse.data().getId(),
+                    userResponse.data().getPassword(), request.getPassword());
+            log.info(rehashResponse.message());
+        }
+
+        // Login; a signed token also carries the role and account ownership epoch
+        SaLoginParameter loginParameter = StpUtil.createSaLoginParameter();
+        if (StpUtil.getStpLogic().isSupportExtra()) {
+            Long accountEpoch = userResponse.data().getAccountEpoch();
+            loginParameter.setExtra(StpLogicForSignedToken.EXTRA_ROLE, userResponse.data().getRole().name())
+                    .setExtra(StpLogicForSignedToken.EXTRA_ACCOUNT_EPOCH, accountEpoch == null ? 0 : accountEpoch);
+        }
+        StpUtil.login(userResponse.data().getId(), loginParameter);
+
+        // A disable committed since the check above may have kicked the user out before this token existed
+        ServiceResponse<User> recheckResponse = userService.getUserById(userResponse.data().getId());
+        if (!recheckResponse.success() || recheckResponse.data().getStatus() == UserStatus.DISABLED) {
+            StpUtil.logoutByTokenValue(StpUtil.getTokenValue());
+            log.warn("User {} was disabled while logging in.", userResponse.data().getId());
+            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
+        }
 
         // Set response data
         Map<String, Object> map = new HashMap<>();
-        map.put("token", StpUtil.getTokenInfo().tokenValue);
+        map.put("token", StpUtil.getTokenValue());
         map.put("username", userResponse.data().getUsername());
         map.put("isSuper", userResponse.data().getRole() != UserRole.USER);
         map.put("isRoot", userResponse.data().getRole() == UserRole.ROOT);
@@ -220,12 +261,13 @@ public class UserController {
     /**
      * Update password
      *
-     * @param request UpdatePasswordRequest with a new password
+     * @param request     UpdatePasswordRequest with a new password
+     * @param httpRequest servlet request, for the client IP
      * @return SaResult
      */
     @PutMapping("update-password")
     @SaCheckLogin
-    public SaResult updatePassword(@RequestBody UpdatePasswordRequest request) {
+    public SaResult updatePassword(@RequestBody UpdatePasswordRequest request, HttpServletRequest httpRequest) {
         // Check if the password is valid
         if (ParameterChecker.isPasswordInvalid(request.getNewPassword())
                 || ParameterChecker.isPasswordInvalid(request.getOldPassword())) {
@@ -243,12 +285,18 @@ public class UserController {
             return SaResult.error("用户不存在").setCode(HttpStatus.UNAUTHORIZED.value());
         }
 
+        // Throttle attempts before hashing
+        String username = userResponse.data().getUsername();
+        if (!loginThrottleService.tryAcquire(username, httpRequest.getRemoteAddr()).success()) {
+            return SaResult.error("尝试次数过多，请稍后再试").setCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        }
+
         // Check if the password matches
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        if (!passwordEncoder.matches(request.getOldPassword(), userResponse.data().getPassword())) {
+        if (!passwordService.matches(request.getOldPassword(), userResponse.data().getPassword())) {
             log.error("Password doesn't match.");
             return SaResult.error("密码错误").setCode(HttpStatus.UNAUTHORIZED.value());
         }
+        loginThrottleService.reset(username);
 
         // Update password
         ServiceResponse<?> response = userService.updatePassword(userId, request.getNewPassword());
@@ -324,6 +372,11 @@ public class UserController {
             log.error(response.message());
             return SaResult.error("权限更新错误").setCode(HttpStatus.BAD_REQUEST.value());
         }
+
+        // Signed tokens carry the old role, so the user has to log in again
+        if (StpUtil.getStpLogic().isSupportExtra()) {
+            StpUtil.logout(request.getUserId());
+        }
         log.info(response.message());
         return SaResult.ok("用户权限更新成功");
     }
@@ -348,8 +401,8 @@ public class UserController {
             return SaResult.error("Root账户无法删除").setCode(HttpStatus.BAD_REQUEST.value());
         }
 
-        // Logout
-        StpUtil.logout();
+        // Logout on every device
+        StpUtil.logout(userId);
 
         log.info(response.message());
         return SaResult.ok("用户删除成功");
@@ -357,7 +410,7 @@ public class UserController {
 
     @PostMapping("second-auth")
     @SaCheckLogin
-    public SaResult secondAuth(@RequestBody SecondAuthRequest request) {
+    public SaResult secondAuth(@RequestBody SecondAuthRequest request, HttpServletRequest httpRequest) {
         // Check if the password is valid
         if (ParameterChecker.isPasswordInvalid(request.getPassword())) {
             log.error("Invalid password.");
@@ -374,12 +427,18 @@ public class UserController {
             return SaResult.error("用户不存在").setCode(HttpStatus.UNAUTHORIZED.value());
         }
 
+        // Throttle attempts before hashing
+        String username = userResponse.data().getUsername();
+        if (!loginThrottleService.tryAcquire(username, httpRequest.getRemoteAddr()).success()) {
+            return SaResult.error("尝试次数过多，请稍后再试").setCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        }
+
         // Check if the password matches
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        if (!passwordEncoder.matches(request.getPassword(), userResponse.data().getPassword())) {
+        if (!passwordService.matches(request.getPassword(), userResponse.data().getPassword())) {
             log.error("Password doesn't match.");
             return SaResult.error("二级验证失败").setCode(HttpStatus.UNAUTHORIZED.value());
         }
+        loginThrottleService.reset(username);
 
         // Open safe for 2 minutes
         StpUtil.openSafe(120);
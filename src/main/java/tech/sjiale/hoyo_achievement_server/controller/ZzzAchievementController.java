@@ -1,19 +1,32 @@
 package tech.sjiale.hoyo_achievement_server.controller;
 
 import cn.dev33.satoken.annotation.SaCheckLogin;
+import cn.dev33.satoken.annotation.SaCheckRole;
+import cn.dev33.satoken.annotation.SaMode;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.dev33.satoken.util.SaResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 import tech.sjiale.hoyo_achievement_server.dto.*;
+import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordBatchRequest;
+import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordItem;
 import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordRequest;
 import tech.sjiale.hoyo_achievement_server.entity.*;
-import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
+import tech.sjiale.hoyo_achievement_server.entity.nume.GameType;
 import tech.sjiale.hoyo_achievement_server.service.*;
+import tech.sjiale.hoyo_achievement_server.util.CatalogResponseUtils;
+import tech.sjiale.hoyo_achievement_server.util.ExportResponseUtils;
+import tech.sjiale.hoyo_achievement_server.util.RequestTiming;
+import tech.sjiale.hoyo_achievement_server.util.StpLogicForSignedToken;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @Slf4j
@@ -22,25 +35,47 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ZzzAchievementController {
 
-    private final AccountService accountService;
-    private final UserService userService;
+    private final AuthContextService authContextService;
     private final ZzzUserRecordService zzzUserRecordService;
-    private final ZzzAchievementService zzzAchievementService;
-    private final ZzzBranchService zzzBranchService;
+    private final CatalogService catalogService;
+    private final RarityService rarityService;
+
+    // Maximum number of achievements in one batch update
+    private static final int MAX_BATCH_SIZE = 1000;
 
     /**
-     * Get all ZZZ achievements
+     * Get all ZZZ achievements; the body is serialized once per catalog version, return 304 if the client already
+     * holds it
      *
-     * @return SaResult
+     * @param acceptEncoding Accept-Encoding header
+     * @param ifNoneMatch    If-None-Match header
+     * @return pre-serialized SaResult
      */
     @GetMapping("all")
-    public SaResult getAllAchievements() {
-        ServiceResponse<List<ZzzAchievement>> response = zzzAchievementService.getAllAchievements();
+    public ResponseEntity<?> getAllAchievements(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> response = catalogService.getZzzCatalog();
+        if (!response.success()) {
+            log.error(response.message());
+            return ResponseEntity.ok(SaResult.error("ZZZ成就列表获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+        return CatalogResponseUtils.toResponse(response.data().achievementsPayload(), acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * Get the share of accounts that completed each ZZZ achievement; served from in-memory counters
+     *
+     * @return SaResult with RarityStats
+     */
+    @GetMapping("rarity")
+    public SaResult getRarity() {
+        ServiceResponse<RarityStats> response = rarityService.getRarity(GameType.ZZZ);
         if (!response.success()) {
             log.error(response.message());
-            return SaResult.error("ZZZ成就列表获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return SaResult.error("ZZZ成就稀有度获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
-        return SaResult.ok("ZZZ成就列表获取成功").setData(response.data());
+        return SaResult.ok("ZZZ成就稀有度获取成功").setData(response.data());
     }
 
     /**
@@ -55,17 +90,38 @@ public class ZzzAchievementController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, uuid)) {
+            return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
+        }
+
+        ServiceResponse<List<ZzzUserRecord>> response = zzzUserRecordService.getAllRecordByUUID(uuid);
+        if (!response.success()) {
+            log.error(response.message());
+            return SaResult.error("账号ZZZ成就记录获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
         }
+        return SaResult.ok("账号ZZZ成就记录获取成功").setData(response.data());
+    }
+
+    /**
+     * Get all records of an account as a compact bitset; 2 bits per achievement in the order of the catalog returned
+     * by /all, so the client can decode it against its cached catalog of the same id
+     *
+     * @param uuid account uuid
+     * @return SaResult with CompactRecords
+     */
+    @GetMapping("account-records/compact")
+    @SaCheckLogin
+    public SaResult getCompactAccountRecords(@RequestParam String uuid) {
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
 
         // Check if the account uuid belongs to the user
         if (isUserNotOwnAccount(userId, uuid)) {
             return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
         }
 
-        ServiceResponse<List<ZzzUserRecord>> response = zzzUserRecordService.getAllRecordByUUID(uuid);
+        ServiceResponse<CompactRecords> response = zzzUserRecordService.getCompactRecordByUUID(uuid);
         if (!response.success()) {
             log.error(response.message());
             return SaResult.error("账号ZZZ成就记录获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
@@ -73,6 +129,141 @@ public class ZzzAchievementController {
         return SaResult.ok("账号ZZZ成就记录获取成功").setData(response.data());
     }
 
+    /**
+     * Get records of an account changed after a sequence number, for incremental sync
+     *
+     * @param uuid  account uuid
+     * @param since seq of the previous response; omit or 0 for a full sync
+     * @return SaResult with RecordChanges
+     */
+    @GetMapping("account-records/changes")
+    @SaCheckLogin
+    public SaResult getAccountRecordChanges(@RequestParam String uuid,
+                                            @RequestParam(defaultValue = "0") long since) {
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
+
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, uuid)) {
+            return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
+        }
+
+        ServiceResponse<RecordChanges<ZzzUserRecord>> response = zzzUserRecordService.getRecordChangesByUUID(uuid, since);
+        if (!response.success()) {
+            log.error(response.message());
+            return SaResult.error("账号ZZZ成就记录获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+        return SaResult.ok("账号ZZZ成就记录获取成功").setData(response.data());
+    }
+
+    /**
+     * Get the progress summary of an account: completed achievements and reward earned, overall, per class and per
+     * game version
+     *
+     * @param uuid account uuid
+     * @return SaResult with ProgressSummary
+     */
+    @GetMapping("summary")
+    @SaCheckLogin
+    public SaResult getAccountSummary(@RequestParam String uuid) {
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
+
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, uuid)) {
+            return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
+        }
+
+        ServiceResponse<ProgressSummary> response = zzzUserRecordService.getSummaryByUUID(uuid);
+        if (!response.success()) {
+            log.error(response.message());
+            return SaResult.error("账号ZZZ成就统计获取失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+        }
+        return SaResult.ok("账号ZZZ成就统计获取成功").setData(response.data());
+    }
+
+    /**
+     * Import records of an account from a UIAF-style JSON or a CSV file; rows that can't be applied are reported
+     *
+     * @param uuid   account uuid
+     * @param format uiaf or csv
+     * @param file   import file
+     * @return SaResult with ImportReport
+     */
+    @PostMapping("import")
+    @SaCheckLogin
+    public SaResult importAccountRecords(@RequestParam String uuid,
+                                         @RequestParam(defaultValue = "uiaf") String format,
+                                         @RequestParam MultipartFile file) {
+        ImportFormat importFormat = ImportFormat.fromName(format);
+        if (importFormat == null) {
+            return SaResult.error("导入格式非法").setCode(HttpStatus.BAD_REQUEST.value());
+        }
+
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
+
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, uuid)) {
+            return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
+        }
+
+        ServiceResponse<ImportReport> response;
+        try (InputStream in = file.getInputStream()) {
+            response = zzzUserRecordService.importRecords(uuid, importFormat, in);
+        } catch (IOException e) {
+            log.error("Failed to read import file.", e);
+            return SaResult.error("导入文件读取失败").setCode(HttpStatus.BAD_REQUEST.value());
+        }
+        if (!response.success()) {
+            log.error(response.message());
+            return SaResult.error("ZZZ成就记录导入失败").setCode(HttpStatus.BAD_REQUEST.value());
+        }
+        return SaResult.ok("ZZZ成就记录导入成功").setData(response.data());
+    }
+
+    /**
+     * Download all records of an account as NDJSON or CSV, with achievement names from the catalog
+     *
+     * @param uuid           account uuid
+     * @param format         ndjson or csv
+     * @param acceptEncoding Accept-Encoding header
+     * @return streamed file, or SaResult on error
+     */
+    @GetMapping("export")
+    @SaCheckLogin
+    public ResponseEntity<?> exportAccountRecords(
+            @RequestParam String uuid,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
+
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, uuid)) {
+            return ResponseEntity.ok(SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value()));
+        }
+
+        return export("zzz-records-" + uuid, uuid, format, acceptEncoding);
+    }
+
+    /**
+     * Download the ZZZ records of all accounts as NDJSON or CSV;
+     * Should only be called by admin or root
+     *
+     * @param format         ndjson or csv
+     * @param acceptEncoding Accept-Encoding header
+     * @return streamed file, or SaResult on error
+     */
+    @GetMapping("export-all")
+    @SaCheckLogin
+    @SaCheckRole(value = {"ADMIN", "ROOT"}, mode = SaMode.OR)
+    public ResponseEntity<?> exportAllRecords(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return export("zzz-records-all", null, format, acceptEncoding);
+    }
+
     /**
      * Update achievement by id
      *
@@ -85,11 +276,6 @@ public class ZzzAchievementController {
         // Get user id from token
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // Check if the user is disabled
-        if (isUserDisabled(userId)) {
-            return SaResult.error("用户已被禁用").setCode(HttpStatus.FORBIDDEN.value());
-        }
-
         // Check if the account uuid belongs to the user
         if (isUserNotOwnAccount(userId, request.getUuid())) {
             return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
@@ -111,18 +297,88 @@ public class ZzzAchievementController {
     }
 
     /**
-     * Get all branches
+     * Update a batch of achievements of one account
      *
+     * @param request UpdateRecordBatchRequest with account uuid and a list of achievement id and record status
      * @return SaResult
      */
-    @GetMapping("branches")
-    public SaResult getAllBranches() {
-        ServiceResponse<List<ZzzBranch>> response = zzzBranchService.getAllBranches();
+    @PutMapping("update-batch")
+    @SaCheckLogin
+    public SaResult updateAchievementBatch(@RequestBody UpdateRecordBatchRequest request) {
+        // Check if the batch is valid
+        List<UpdateRecordItem> items = request.getRecords();
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            return SaResult.error("批量更新数量非法").setCode(HttpStatus.BAD_REQUEST.value());
+        }
+        for (UpdateRecordItem item : items) {
+            if (item == null || item.getAchievementId() == null || item.getCompleteStatus() == null
+                    || item.getCompleteStatus() < 0 || item.getCompleteStatus() > 1) {
+                return SaResult.error("更新状态非法").setCode(HttpStatus.BAD_REQUEST.value());
+            }
+        }
+
+        // Get user id from token
+        Long userId = StpUtil.getLoginIdAsLong();
+
+        // Check if the account uuid belongs to the user
+        if (isUserNotOwnAccount(userId, request.getUuid())) {
+            return SaResult.error("非对应用户请求").setCode(HttpStatus.FORBIDDEN.value());
+        }
+
+        // Update records
+        ServiceResponse<?> response = zzzUserRecordService.updateRecordBatch(request.getUuid(), items);
         if (!response.success()) {
             log.error(response.message());
-            return SaResult.error("获取ZZZ成就分支列表失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            return SaResult.error("成就批量更新失败").setCode(HttpStatus.BAD_REQUEST.value());
         }
-        return SaResult.ok("获取ZZZ成就分支列表成功").setData(response.data());
+        return SaResult.ok("成就批量更新状态成功");
+    }
+
+    /**
+     * Get all branches; the body is serialized once per catalog version, return 304 if the client already holds it
+     *
+     * @param acceptEncoding Accept-Encoding header
+     * @param ifNoneMatch    If-None-Match header
+     * @return pre-serialized SaResult
+     */
+    @GetMapping("branches")
+    public ResponseEntity<?> getAllBranches(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> response = catalogService.getZzzCatalog();
+        if (!response.success() || response.data().branches().isEmpty()) {
+            log.error(response.success() ? "No ZZZ branches found." : response.message());
+            return ResponseEntity.ok(SaResult.error("获取ZZZ成就分支列表失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+        return CatalogResponseUtils.toResponse(response.data().branchesPayload(), acceptEncoding, ifNoneMatch);
+    }
+
+    /**
+     * Helper method to stream an export of records
+     *
+     * @param fileName       file name without extension
+     * @param uuid           account uuid, null for all accounts
+     * @param format         format name
+     * @param acceptEncoding Accept-Encoding header
+     * @return streamed file, or SaResult on error
+     */
+    private ResponseEntity<?> export(String fileName, String uuid, String format, String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.fromName(format);
+        if (exportFormat == null) {
+            return ResponseEntity.ok(SaResult.error("导出格式非法").setCode(HttpStatus.BAD_REQUEST.value()));
+        }
+
+        // Check the catalog before the status is sent
+        ServiceResponse<?> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            log.error(catalogResponse.message());
+            return ResponseEntity.ok(SaResult.error("ZZZ成就记录导出失败").setCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        }
+
+        return ExportResponseUtils.toResponse(fileName, exportFormat, acceptEncoding,
+                out -> uuid == null
+                        ? zzzUserRecordService.exportAllRecords(exportFormat, out)
+                        : zzzUserRecordService.exportRecords(uuid, exportFormat, out));
     }
 
     /**
@@ -133,20 +389,10 @@ public class ZzzAchievementController {
      * @return true if the user doesn't own the account, false otherwise
      */
     private boolean isUserNotOwnAccount(Long userId, String accountUuid) {
-        // Get all accounts by user id
-        ServiceResponse<List<Account>> response = accountService.getAllAccountsByUserId(userId);
-        if (!response.success()) {
-            log.error(response.message());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, response.message());
-        }
-
         // Check if the account uuid belongs to the user
-        boolean ownUuid = false;
-        for (Account account : response.data()) {
-            if (account.getAccountUuid().equals(accountUuid)) {
-                ownUuid = true;
-                break;
-            }
+        boolean ownUuid;
+        try (RequestTiming.Span span = RequestTiming.span("ownership")) {
+            ownUuid = getAuthContext(userId).ownsAccount(accountUuid);
         }
         if (!ownUuid) {
             log.error("User {} doesn't own account {}.", userId, accountUuid);
@@ -155,25 +401,18 @@ public class ZzzAchievementController {
     }
 
     /**
-     * Helper method to check if the user is disabled
+     * Helper method to get the cached authorization context of the user, at least as new as the login
      *
      * @param userId user id
-     * @return true if disabled, false otherwise
+     * @return AuthContext
      */
-    private boolean isUserDisabled(Long userId) {
-        // Get user info
-        ServiceResponse<User> userResponse = userService.getUserById(userId);
-        if (!userResponse.success()) {
-            log.error(userResponse.message());
-            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, userResponse.message());
-        }
-
-        // Check if the user is disabled
-        User user = userResponse.data();
-        if (user.getStatus() == UserStatus.DISABLED) {
-            log.error("User {} is disabled.", userId);
-            return true;
+    private AuthContext getAuthContext(Long userId) {
+        ServiceResponse<AuthContext> response = authContextService.getAuthContext(userId,
+                StpLogicForSignedToken.currentAccountEpoch());
+        if (!response.success()) {
+            log.error(response.message());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, response.message());
         }
-        return false;
+        return response.data();
     }
 }
@@ -0,0 +1,15 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Share of accounts that completed one achievement
+ *
+ * @param achievementId achievement id
+ * @param completed     number of accounts that completed it
+ * @param percent       completed accounts in percent of all accounts of the game, two decimals
+ */
+public record AchievementRarity(
+        int achievementId,
+        long completed,
+        double percent
+) {
+}
@@ -0,0 +1,31 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserRole;
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
+
+import java.util.Set;
+
+/**
+ * Cached authorization facts of one user
+ *
+ * @param userId       user id
+ * @param role         user role
+ * @param status       user status
+ * @param accountUuids uuids of all accounts owned by the user
+ * @param accountEpoch account ownership epoch the uuids were loaded at
+ */
+public record AuthContext(
+        Long userId,
+        UserRole role,
+        UserStatus status,
+        Set<String> accountUuids,
+        long accountEpoch
+) {
+    public AuthContext {
+        accountUuids = Set.copyOf(accountUuids);
+    }
+
+    public boolean ownsAccount(String accountUuid) {
+        return accountUuid != null && accountUuids.contains(accountUuid);
+    }
+}
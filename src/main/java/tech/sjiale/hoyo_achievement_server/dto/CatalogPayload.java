@@ -0,0 +1,23 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Pre-serialized response body of a catalog endpoint
+ *
+ * @param identity uncompressed JSON bytes
+ * @param gzip     gzip-compressed JSON bytes
+ * @param etag     strong ETag of the uncompressed representation
+ */
+public record CatalogPayload(
+        byte[] identity,
+        byte[] gzip,
+        String etag
+) {
+    /**
+     * Strong ETag of the gzip representation; it must differ from the identity one
+     *
+     * @return quoted ETag
+     */
+    public String gzipETag() {
+        return etag.substring(0, etag.length() - 1) + "-gz\"";
+    }
+}
@@ -0,0 +1,53 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import tech.sjiale.hoyo_achievement_server.util.BranchIndex;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable view of one game's achievement catalog; replaced as a whole after each migration
+ *
+ * @param id                  content-derived catalog id; the same catalog has the same id on every node and restart
+ * @param achievements        all achievements ordered by achievement id
+ * @param branches            all branches ordered by branch id
+ * @param achievementIds      sorted ids of all achievements
+ * @param branchIndex         branch membership index
+ * @param achievementsPayload pre-serialized response of the achievement list
+ * @param branchesPayload     pre-serialized response of the branch list
+ */
+public record CatalogSnapshot<A, B>(
+        String id,
+        List<A> achievements,
+        List<B> branches,
+        int[] achievementIds,
+        BranchIndex branchIndex,
+        CatalogPayload achievementsPayload,
+        CatalogPayload branchesPayload
+) {
+    public CatalogSnapshot {
+        achievements = List.copyOf(achievements);
+        branches = List.copyOf(branches);
+    }
+
+    /**
+     * Check if an achievement exists in this catalog
+     *
+     * @param achievementId achievement id
+     * @return true if exists
+     */
+    public boolean containsAchievement(int achievementId) {
+        return Arrays.binarySearch(achievementIds, achievementId) >= 0;
+    }
+
+    /**
+     * Find an achievement by id; achievements and achievementIds are in the same order
+     *
+     * @param achievementId achievement id
+     * @return achievement, or null if it isn't in this catalog
+     */
+    public A findAchievement(int achievementId) {
+        int index = Arrays.binarySearch(achievementIds, achievementId);
+        return index >= 0 ? achievements.get(index) : null;
+    }
+}
@@ -0,0 +1,16 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Completion state of one account packed against a catalog
+ *
+ * @param catalogId      id of the catalog the positions refer to
+ * @param size           number of achievements in the catalog
+ * @param data           base64 of 2 bits per achievement in catalog order, lowest bits first; 0 incomplete,
+ *                       1 complete, 2 locked by another achievement in the same branch
+ */
+public record CompactRecords(
+        String catalogId,
+        int size,
+        String data
+) {
+}
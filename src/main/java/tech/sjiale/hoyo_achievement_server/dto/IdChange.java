@@ -0,0 +1,13 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Change of a row's key column
+ *
+ * @param oldId current key
+ * @param newId new key
+ */
+public record IdChange<K>(
+        K oldId,
+        K newId
+) {
+}
@@ -0,0 +1,26 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Formats of a record import
+ */
+public enum ImportFormat {
+    // {"list": [{"id": 1, "status": 2}, ...]}, status as in UIAF: 1 unfinished, 2 finished, 3 reward taken
+    UIAF,
+    // header row with achievement_id (or id) and complete (0/1) or status (UIAF codes); exports can be imported back
+    CSV;
+
+    /**
+     * Find a format by name, ignoring case
+     *
+     * @param name format name
+     * @return ImportFormat, or null if unknown
+     */
+    public static ImportFormat fromName(String name) {
+        for (ImportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
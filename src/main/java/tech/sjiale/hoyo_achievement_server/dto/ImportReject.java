@@ -0,0 +1,15 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * A row of an import file that was not applied
+ *
+ * @param row           1-based row number among the data rows
+ * @param achievementId achievement id, null if missing
+ * @param reason        why it was rejected
+ */
+public record ImportReject(
+        int row,
+        Integer achievementId,
+        String reason
+) {
+}
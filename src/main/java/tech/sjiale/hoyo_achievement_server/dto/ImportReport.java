@@ -0,0 +1,24 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.List;
+
+/**
+ * Result of a record import
+ *
+ * @param rows          data rows read
+ * @param applied       achievements written; duplicates and siblings implied by a completed branch are folded, and
+ *                      incomplete rows of a branch without a completed row are skipped
+ * @param rejected      rows rejected
+ * @param rejects       the first rejected rows, up to a limit
+ * @param elapsedMs     time taken
+ * @param rowsPerSecond rows read per second
+ */
+public record ImportReport(
+        int rows,
+        int applied,
+        int rejected,
+        List<ImportReject> rejects,
+        long elapsedMs,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,24 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * One row of an import file
+ *
+ * @param row            1-based row number among the data rows
+ * @param achievementId  achievement id, null if missing
+ * @param completeStatus 1 completed or 0 not completed, null if the row is invalid
+ * @param error          why the row can't be read, null if valid
+ */
+public record ImportRow(
+        int row,
+        Integer achievementId,
+        Integer completeStatus,
+        String error
+) {
+    public static ImportRow valid(int row, int achievementId, int completeStatus) {
+        return new ImportRow(row, achievementId, completeStatus, null);
+    }
+
+    public static ImportRow invalid(int row, Integer achievementId, String error) {
+        return new ImportRow(row, achievementId, null, error);
+    }
+}
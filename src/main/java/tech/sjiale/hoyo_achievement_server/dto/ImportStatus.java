@@ -3,5 +3,6 @@ package tech.sjiale.hoyo_achievement_server.dto;
 public enum ImportStatus {
     SUCCESS,
     IMPORTED,
+    CHANGED,
     FAIL
 }
@@ -0,0 +1,19 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.List;
+
+/**
+ * Top-level fields of a migration file; the payload is streamed separately when the file is applied
+ *
+ * @param name       migration name
+ * @param type       migration type
+ * @param depends    names of migrations this one depends on, nullable
+ * @param hasPayload true if the file has a 'payload' object
+ */
+public record MigrationHeader(
+        String name,
+        String type,
+        List<String> depends,
+        boolean hasPayload
+) {
+}
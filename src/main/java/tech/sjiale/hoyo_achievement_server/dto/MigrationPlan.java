@@ -0,0 +1,15 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.List;
+
+/**
+ * Result of planning an import run
+ *
+ * @param ordered migrations to apply, every one after all of its dependencies
+ * @param results results of migrations that will not be applied: already imported ones and rejected ones
+ */
+public record MigrationPlan(
+        List<ParsedMigration> ordered,
+        List<MigrationResult> results
+) {
+}
@@ -14,6 +14,10 @@ public record MigrationResult(
         return new MigrationResult(ImportStatus.IMPORTED, fileName, null);
     }
 
+    public static MigrationResult changed(String fileName, String message) {
+        return new MigrationResult(ImportStatus.CHANGED, fileName, message);
+    }
+
     public static MigrationResult failed(String fileName, String message) {
         return new MigrationResult(ImportStatus.FAIL, fileName, message);
     }
@@ -0,0 +1,41 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A migration file that has been read and validated, but not applied yet
+ *
+ * @param path        JSON file path
+ * @param header      top-level fields of the migration file
+ * @param contentHash SHA-256 of the file content
+ * @param fileSize    file size in bytes
+ * @param fileMtime   last modified time of the file in epoch milliseconds
+ */
+public record ParsedMigration(
+        String path,
+        MigrationHeader header,
+        String contentHash,
+        long fileSize,
+        long fileMtime
+) {
+    /**
+     * Get the migration name
+     *
+     * @return name
+     */
+    public String name() {
+        return header.name();
+    }
+
+    /**
+     * Get the distinct dependencies of the migration
+     *
+     * @return dependency names, empty if none
+     */
+    public List<String> depends() {
+        if (header.depends() == null) return List.of();
+        return List.copyOf(new LinkedHashSet<>(header.depends().stream().filter(Objects::nonNull).toList()));
+    }
+}
@@ -0,0 +1,17 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+/**
+ * Progress of an account on a group of achievements
+ *
+ * @param completed   completed achievements
+ * @param total       achievements in the catalog
+ * @param reward      reward level earned
+ * @param rewardTotal reward level of all achievements in the catalog
+ */
+public record ProgressCount(
+        int completed,
+        int total,
+        long reward,
+        long rewardTotal
+) {
+}
@@ -0,0 +1,19 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.Map;
+
+/**
+ * Progress of an account on the whole catalog and per group
+ *
+ * @param catalogId      id of the catalog the totals come from
+ * @param overall        progress on all achievements
+ * @param byClass        progress per SR class name or ZZZ class id
+ * @param byVersion      progress per game version
+ */
+public record ProgressSummary(
+        String catalogId,
+        ProgressCount overall,
+        Map<String, ProgressCount> byClass,
+        Map<String, ProgressCount> byVersion
+) {
+}
@@ -0,0 +1,17 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.List;
+
+/**
+ * Rarity of every achievement of one game
+ *
+ * @param catalogId      id of the catalog the achievements come from
+ * @param accounts       number of accounts of the game
+ * @param achievements   rarity per achievement, in catalog order
+ */
+public record RarityStats(
+        String catalogId,
+        long accounts,
+        List<AchievementRarity> achievements
+) {
+}
@@ -0,0 +1,18 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.List;
+
+/**
+ * Records of one account changed after a sequence number
+ *
+ * @param seq            current change sequence of the account, pass it as "since" in the next request
+ * @param catalogId      id of the catalog; when it differs from the one the client holds the client should do a full
+ *                       sync, since catalog migrations can change records without bumping the sequence
+ * @param records        changed records
+ */
+public record RecordChanges<T>(
+        long seq,
+        String catalogId,
+        List<T> records
+) {
+}
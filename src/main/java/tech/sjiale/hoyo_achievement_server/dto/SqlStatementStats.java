@@ -0,0 +1,25 @@
+package tech.sjiale.hoyo_achievement_server.dto;
+
+import java.util.Map;
+
+/**
+ * Snapshot of the executions of one mapper statement since startup
+ *
+ * @param statementId mapper statement id
+ * @param count       executions
+ * @param rows        rows returned or affected
+ * @param totalMs     total time in milliseconds
+ * @param meanMs      mean time in milliseconds
+ * @param maxMs       slowest execution in milliseconds
+ * @param histogram   executions per latency bucket, keyed by the bucket's upper bound such as "<=5ms"
+ */
+public record SqlStatementStats(
+        String statementId,
+        long count,
+        long rows,
+        double totalMs,
+        double meanMs,
+        double maxMs,
+        Map<String, Long> histogram
+) {
+}
@@ -0,0 +1,11 @@
+package tech.sjiale.hoyo_achievement_server.dto.achievement_request;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UpdateRecordBatchRequest {
+    private String uuid;
+    private List<UpdateRecordItem> records;
+}
@@ -0,0 +1,9 @@
+package tech.sjiale.hoyo_achievement_server.dto.achievement_request;
+
+import lombok.Data;
+
+@Data
+public class UpdateRecordItem {
+    private Integer achievementId;
+    private Integer completeStatus;
+}
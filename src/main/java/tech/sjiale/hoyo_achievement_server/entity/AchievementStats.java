@@ -0,0 +1,23 @@
+package tech.sjiale.hoyo_achievement_server.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tech.sjiale.hoyo_achievement_server.entity.nume.GameType;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("achievement_stats")
+public class AchievementStats {
+    @TableField(value = "game_type")
+    private GameType gameType;
+
+    @TableField(value = "achievement_id")
+    private Integer achievementId;
+
+    @TableField(value = "completed")
+    private Long completed;
+}
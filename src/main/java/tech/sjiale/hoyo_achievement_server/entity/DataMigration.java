@@ -25,6 +25,16 @@ public class DataMigration {
     @TableField(value = "depends", typeHandler = JacksonTypeHandler.class)
     private List<String> depends;
 
+    @TableField(value = "content_hash")
+    private String contentHash;
+
+    @TableField(value = "file_size")
+    private Long fileSize;
+
+    // Last modified time of the file in epoch milliseconds
+    @TableField(value = "file_mtime")
+    private Long fileMtime;
+
     @TableField(value = "migration_time", insertStrategy = FieldStrategy.NEVER)
     private LocalDateTime migrationTime;
 }
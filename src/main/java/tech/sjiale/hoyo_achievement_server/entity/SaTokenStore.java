@@ -0,0 +1,24 @@
+package tech.sjiale.hoyo_achievement_server.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("sa_token_store")
+public class SaTokenStore {
+    @TableId(value = "token_key")
+    private String tokenKey;
+
+    @TableField(value = "token_value")
+    private String tokenValue;
+
+    // Epoch millis, null never expires
+    @TableField(value = "expire_at")
+    private Long expireAt;
+}
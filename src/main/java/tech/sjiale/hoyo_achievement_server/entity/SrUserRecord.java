@@ -15,4 +15,7 @@ public class SrUserRecord {
 
     @TableField(value = "complete")
     private Integer complete;
+
+    @TableField(value = "seq")
+    private Long seq;
 }
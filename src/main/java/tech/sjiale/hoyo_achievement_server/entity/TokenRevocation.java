@@ -0,0 +1,26 @@
+package tech.sjiale.hoyo_achievement_server.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("token_revocation")
+public class TokenRevocation {
+    // "token:<token id>" or "user:<user id>"
+    @TableId(value = "revocation_key")
+    private String revocationKey;
+
+    // Epoch millis; for a user, tokens issued at or before it are revoked
+    @TableField(value = "revoked_at")
+    private Long revokedAt;
+
+    // Epoch millis, null never expires
+    @TableField(value = "expire_at")
+    private Long expireAt;
+}
@@ -25,6 +25,10 @@ public class User {
     @TableField(value = "status")
     private UserStatus status;
 
+    // Incremented when the user creates or deletes an account
+    @TableField(value = "account_epoch")
+    private Long accountEpoch;
+
     @TableField(value = "created_at", fill = FieldFill.INSERT)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -0,0 +1,28 @@
+package tech.sjiale.hoyo_achievement_server.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("zzz_account_summary")
+public class ZzzAccountSummary {
+    @TableField(value = "account_uuid")
+    private String accountUuid;
+
+    @TableField(value = "dimension")
+    private String dimension;
+
+    @TableField(value = "dim_key")
+    private String dimKey;
+
+    @TableField(value = "completed")
+    private Integer completed;
+
+    @TableField(value = "reward")
+    private Long reward;
+}
@@ -15,4 +15,7 @@ public class ZzzUserRecord {
 
     @TableField(value = "complete")
     private Integer complete;
+
+    @TableField(value = "seq")
+    private Long seq;
 }
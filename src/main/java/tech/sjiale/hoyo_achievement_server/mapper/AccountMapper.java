@@ -2,8 +2,16 @@ package tech.sjiale.hoyo_achievement_server.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import tech.sjiale.hoyo_achievement_server.entity.Account;
 
 @Mapper
 public interface AccountMapper extends BaseMapper<Account> {
+    @Update("UPDATE account SET record_seq = record_seq + 1 WHERE account_uuid = #{uuid}")
+    int incrementRecordSeq(@Param("uuid") String uuid);
+
+    @Select("SELECT record_seq FROM account WHERE account_uuid = #{uuid}")
+    Long selectRecordSeq(@Param("uuid") String uuid);
 }
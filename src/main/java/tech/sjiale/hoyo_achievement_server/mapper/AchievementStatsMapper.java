@@ -0,0 +1,39 @@
+package tech.sjiale.hoyo_achievement_server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import tech.sjiale.hoyo_achievement_server.entity.AchievementStats;
+
+import java.util.List;
+
+@Mapper
+public interface AchievementStatsMapper extends BaseMapper<AchievementStats> {
+    // completed of each row is a delta, added to the stored value
+    @Insert("""
+                <script>
+                INSERT INTO achievement_stats (game_type, achievement_id, completed)
+                VALUES
+                <foreach collection="rows" item="row" separator=",">
+                    (#{row.gameType}, #{row.achievementId}, #{row.completed})
+                </foreach>
+                ON DUPLICATE KEY UPDATE completed = completed + VALUES(completed)
+                </script>
+            """)
+    int addDeltas(@Param("rows") List<AchievementStats> rows);
+
+    @Insert("""
+                INSERT INTO achievement_stats (game_type, achievement_id, completed)
+                SELECT 'SR', achievement_id, COUNT(*) FROM sr_user_record
+                WHERE complete = 1 GROUP BY achievement_id
+            """)
+    int rebuildSr();
+
+    @Insert("""
+                INSERT INTO achievement_stats (game_type, achievement_id, completed)
+                SELECT 'ZZZ', achievement_id, COUNT(*) FROM zzz_user_record
+                WHERE complete = 1 GROUP BY achievement_id
+            """)
+    int rebuildZzz();
+}
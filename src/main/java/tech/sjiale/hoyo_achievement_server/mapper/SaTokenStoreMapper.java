@@ -0,0 +1,67 @@
+package tech.sjiale.hoyo_achievement_server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import tech.sjiale.hoyo_achievement_server.entity.SaTokenStore;
+
+import java.util.List;
+
+@Mapper
+public interface SaTokenStoreMapper extends BaseMapper<SaTokenStore> {
+    @Insert("""
+                INSERT INTO sa_token_store (token_key, token_value, expire_at)
+                VALUES (#{row.tokenKey}, #{row.tokenValue}, #{row.expireAt})
+                ON DUPLICATE KEY UPDATE token_value = VALUES(token_value), expire_at = VALUES(expire_at)
+            """)
+    int upsert(@Param("row") SaTokenStore row);
+
+    // Update-only, so a key deleted in the meantime is not written back
+    @Update("""
+                <script>
+                UPDATE sa_token_store SET token_value = CASE token_key
+                <foreach collection="rows" item="row">
+                    WHEN #{row.tokenKey} THEN #{row.tokenValue}
+                </foreach>
+                ELSE token_value END
+                WHERE token_key IN
+                <foreach collection="rows" item="row" open="(" separator="," close=")">#{row.tokenKey}</foreach>
+                </script>
+            """)
+    int updateValues(@Param("rows") List<SaTokenStore> rows);
+
+    @Update("""
+                <script>
+                UPDATE sa_token_store SET expire_at = CASE token_key
+                <foreach collection="rows" item="row">
+                    WHEN #{row.tokenKey} THEN #{row.expireAt}
+                </foreach>
+                ELSE expire_at END
+                WHERE token_key IN
+                <foreach collection="rows" item="row" open="(" separator="," close=")">#{row.tokenKey}</foreach>
+                </script>
+            """)
+    int updateExpires(@Param("rows") List<SaTokenStore> rows);
+
+    @Delete("DELETE FROM sa_token_store WHERE expire_at <= #{now} LIMIT #{limit}")
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
+
+    // prefixPattern has its LIKE wildcards escaped; size below 0 returns all keys and ignores start
+    @Select("""
+                <script>
+                SELECT token_key FROM sa_token_store
+                WHERE token_key LIKE CONCAT(#{prefixPattern}, '%')
+                    AND INSTR(token_key, #{keyword}) > 0
+                    AND (expire_at IS NULL OR expire_at > #{now})
+                ORDER BY token_key <if test="!ascending">DESC</if>
+                <if test="size >= 0">LIMIT #{start}, #{size}</if>
+                </script>
+            """)
+    List<String> searchKeys(@Param("prefixPattern") String prefixPattern, @Param("keyword") String keyword,
+                            @Param("now") long now, @Param("ascending") boolean ascending,
+                            @Param("start") int start, @Param("size") int size);
+}
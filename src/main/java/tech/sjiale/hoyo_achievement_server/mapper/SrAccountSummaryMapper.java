@@ -0,0 +1,48 @@
+package tech.sjiale.hoyo_achievement_server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import tech.sjiale.hoyo_achievement_server.entity.SrAccountSummary;
+
+import java.util.List;
+
+@Mapper
+public interface SrAccountSummaryMapper extends BaseMapper<SrAccountSummary> {
+    // completed and reward of each row are deltas, added to the stored values
+    @Insert("""
+                <script>
+                INSERT INTO sr_account_summary (account_uuid, dimension, dim_key, completed, reward)
+                VALUES
+                <foreach collection="rows" item="row" separator=",">
+                    (#{row.accountUuid}, #{row.dimension}, #{row.dimKey}, #{row.completed}, #{row.reward})
+                </foreach>
+                ON DUPLICATE KEY UPDATE
+                    completed = completed + VALUES(completed),
+                    reward = reward + VALUES(reward)
+                </script>
+            """)
+    int addDeltas(@Param("rows") List<SrAccountSummary> rows);
+
+    @Delete("DELETE FROM sr_account_summary")
+    int deleteAll();
+
+    // Same as the backfill in changelog-0.9
+    @Insert("""
+                INSERT INTO sr_account_summary (account_uuid, dimension, dim_key, completed, reward)
+                SELECT r.account_uuid, 'all', '', COUNT(*), SUM(a.reward_level)
+                FROM sr_user_record r JOIN sr_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid
+                UNION ALL
+                SELECT r.account_uuid, 'class', a.class_name, COUNT(*), SUM(a.reward_level)
+                FROM sr_user_record r JOIN sr_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid, a.class_name
+                UNION ALL
+                SELECT r.account_uuid, 'version', a.game_version, COUNT(*), SUM(a.reward_level)
+                FROM sr_user_record r JOIN sr_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid, a.game_version
+            """)
+    int rebuildAll();
+}
@@ -0,0 +1,31 @@
+package tech.sjiale.hoyo_achievement_server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import tech.sjiale.hoyo_achievement_server.entity.TokenRevocation;
+
+import java.util.List;
+
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+    @Insert("""
+                INSERT INTO token_revocation (revocation_key, revoked_at, expire_at)
+                VALUES (#{row.revocationKey}, #{row.revokedAt}, #{row.expireAt})
+                ON DUPLICATE KEY UPDATE revoked_at = GREATEST(revoked_at, VALUES(revoked_at)),
+                    expire_at = VALUES(expire_at)
+            """)
+    int upsert(@Param("row") TokenRevocation row);
+
+    @Select("""
+                SELECT revocation_key, revoked_at, expire_at FROM token_revocation
+                WHERE revoked_at >= #{since} AND (expire_at IS NULL OR expire_at > #{now})
+            """)
+    List<TokenRevocation> selectSince(@Param("since") long since, @Param("now") long now);
+
+    @Delete("DELETE FROM token_revocation WHERE expire_at <= #{now} LIMIT #{limit}")
+    int deleteExpired(@Param("now") long now, @Param("limit") int limit);
+}
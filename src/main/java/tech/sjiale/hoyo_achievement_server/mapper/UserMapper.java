@@ -2,7 +2,9 @@ package tech.sjiale.hoyo_achievement_server.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import tech.sjiale.hoyo_achievement_server.dto.user_request.UserExposeDto;
 import tech.sjiale.hoyo_achievement_server.entity.User;
 
@@ -22,4 +24,7 @@ public interface UserMapper extends BaseMapper<User> {
                 ORDER BY id;
             """)
     List<UserExposeDto> selectAll();
+
+    @Update("UPDATE users SET account_epoch = account_epoch + 1 WHERE id = #{userId}")
+    int incrementAccountEpoch(@Param("userId") Long userId);
 }
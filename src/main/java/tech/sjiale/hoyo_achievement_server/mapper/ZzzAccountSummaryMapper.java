@@ -0,0 +1,48 @@
+package tech.sjiale.hoyo_achievement_server.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAccountSummary;
+
+import java.util.List;
+
+@Mapper
+public interface ZzzAccountSummaryMapper extends BaseMapper<ZzzAccountSummary> {
+    // completed and reward of each row are deltas, added to the stored values
+    @Insert("""
+                <script>
+                INSERT INTO zzz_account_summary (account_uuid, dimension, dim_key, completed, reward)
+                VALUES
+                <foreach collection="rows" item="row" separator=",">
+                    (#{row.accountUuid}, #{row.dimension}, #{row.dimKey}, #{row.completed}, #{row.reward})
+                </foreach>
+                ON DUPLICATE KEY UPDATE
+                    completed = completed + VALUES(completed),
+                    reward = reward + VALUES(reward)
+                </script>
+            """)
+    int addDeltas(@Param("rows") List<ZzzAccountSummary> rows);
+
+    @Delete("DELETE FROM zzz_account_summary")
+    int deleteAll();
+
+    // Same as the backfill in changelog-0.9
+    @Insert("""
+                INSERT INTO zzz_account_summary (account_uuid, dimension, dim_key, completed, reward)
+                SELECT r.account_uuid, 'all', '', COUNT(*), SUM(a.reward_level)
+                FROM zzz_user_record r JOIN zzz_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid
+                UNION ALL
+                SELECT r.account_uuid, 'class', CAST(a.class_id AS CHAR), COUNT(*), SUM(a.reward_level)
+                FROM zzz_user_record r JOIN zzz_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid, a.class_id
+                UNION ALL
+                SELECT r.account_uuid, 'version', a.game_version, COUNT(*), SUM(a.reward_level)
+                FROM zzz_user_record r JOIN zzz_achievement a ON a.achievement_id = r.achievement_id
+                WHERE r.complete = 1 GROUP BY r.account_uuid, a.game_version
+            """)
+    int rebuildAll();
+}
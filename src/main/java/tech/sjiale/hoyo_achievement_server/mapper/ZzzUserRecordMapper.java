@@ -1,9 +1,39 @@
 package tech.sjiale.hoyo_achievement_server.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 import tech.sjiale.hoyo_achievement_server.entity.ZzzUserRecord;
 
+import java.util.List;
+
 @Mapper
 public interface ZzzUserRecordMapper extends BaseMapper<ZzzUserRecord> {
+    // seq is assigned before complete so it compares against the old value; it only moves on a real change.
+    // A NULL old value never equals the new one, so it counts as a change
+    @Insert("""
+                <script>
+                INSERT INTO zzz_user_record (account_uuid, achievement_id, complete, seq)
+                VALUES
+                <foreach collection="records" item="record" separator=",">
+                    (#{record.accountUuid}, #{record.achievementId}, #{record.complete}, #{record.seq})
+                </foreach>
+                ON DUPLICATE KEY UPDATE
+                    seq = CASE WHEN complete = VALUES(complete) THEN seq ELSE VALUES(seq) END,
+                    complete = VALUES(complete)
+                </script>
+            """)
+    int upsertBatch(@Param("records") List<ZzzUserRecord> records);
+
+    // A fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of loading the whole result;
+    // the cursor must be read inside a transaction, and no other statement may run on the connection meanwhile
+    @Select("SELECT account_uuid, achievement_id, complete, seq FROM zzz_user_record "
+            + "ORDER BY account_uuid, achievement_id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<ZzzUserRecord> cursorAll();
 }
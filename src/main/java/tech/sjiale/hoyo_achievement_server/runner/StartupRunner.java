@@ -9,6 +9,7 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 import tech.sjiale.hoyo_achievement_server.dto.MigrationResult;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.service.CatalogService;
 import tech.sjiale.hoyo_achievement_server.service.MigrationService;
 import tech.sjiale.hoyo_achievement_server.service.UserService;
 import tech.sjiale.hoyo_achievement_server.util.PasswordGenerator;
@@ -21,6 +22,7 @@ import java.util.List;
 public class StartupRunner implements ApplicationRunner {
 
     private final MigrationService migrationService;
+    private final CatalogService catalogService;
     private final UserService userService;
 
     // args or yaml: --app.admin.initial-password=xxxxx
@@ -36,6 +38,13 @@ public class StartupRunner implements ApplicationRunner {
             System.exit(1);
         }
 
+        // Build the catalog and branch index before serving, unless the import already did
+        log.info("Load achievement catalog");
+        ServiceResponse<?> catalogResponse = catalogService.getSrCatalog();
+        if (!catalogResponse.success()) {
+            log.error("Load achievement catalog failed. {}", catalogResponse.message());
+        }
+
         log.info("Check root user status");
         try {
             // Check if the root user exists
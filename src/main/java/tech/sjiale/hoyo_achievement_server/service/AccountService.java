@@ -18,4 +18,8 @@ public interface AccountService extends IService<Account> {
     ServiceResponse<?> updateAccountInGameUid(String uuid, String newInGameUid);
 
     ServiceResponse<?> deleteAccount(String uuid);
+
+    ServiceResponse<Long> getRecordSeq(String uuid);
+
+    ServiceResponse<Long> nextRecordSeq(String uuid);
 }
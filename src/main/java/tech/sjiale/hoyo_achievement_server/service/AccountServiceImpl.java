@@ -1,19 +1,26 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.Account;
 import tech.sjiale.hoyo_achievement_server.mapper.AccountMapper;
+import tech.sjiale.hoyo_achievement_server.mapper.UserMapper;
 
 import java.util.List;
 
 @Slf4j
 @Service("accountService")
+@RequiredArgsConstructor
 public class AccountServiceImpl extends ServiceImpl<AccountMapper, Account> implements AccountService {
 
+    private final AuthContextService authContextService;
+    private final RarityService rarityService;
+    private final UserMapper userMapper;
+
     /**
      * Get account by uuid
      *
@@ -70,6 +77,8 @@ public class AccountServiceImpl extends ServiceImpl<AccountMapper, Account> impl
             log.error("Create account failed.");
             throw new RuntimeException("Create account failed.");
         }
+        userMapper.incrementAccountEpoch(account.getUserId());
+        authContextService.invalidateUser(account.getUserId());
         return ServiceResponse.success("Create account successfully for uuid: " + account.getAccountUuid());
     }
 
@@ -122,6 +131,15 @@ public class AccountServiceImpl extends ServiceImpl<AccountMapper, Account> impl
      */
     @Transactional
     public ServiceResponse<?> deleteAccount(String uuid) {
+        // Find the owner, whose cached account set changes, and the game, whose rarity counts drop
+        Account account = this.lambdaQuery()
+                .select(Account::getUserId, Account::getGameType)
+                .eq(Account::getAccountUuid, uuid)
+                .one();
+        if (account != null && account.getGameType() != null) {
+            rarityService.forgetAccount(account.getGameType(), uuid);
+        }
+
         // Delete an account
         boolean removed = this.lambdaUpdate()
                 .eq(Account::getAccountUuid, uuid)
@@ -130,6 +148,40 @@ public class AccountServiceImpl extends ServiceImpl<AccountMapper, Account> impl
             log.error("Delete account failed.");
             throw new RuntimeException("Delete account failed.");
         }
+        if (account != null) {
+            userMapper.incrementAccountEpoch(account.getUserId());
+            authContextService.invalidateUser(account.getUserId());
+        }
         return ServiceResponse.success("Delete account successfully for uuid: " + uuid);
     }
+
+    /**
+     * Get the current record change sequence of an account
+     *
+     * @param uuid account uuid
+     * @return ServiceResponse with the sequence
+     */
+    public ServiceResponse<Long> getRecordSeq(String uuid) {
+        Long seq = this.baseMapper.selectRecordSeq(uuid);
+        if (seq == null) {
+            return ServiceResponse.error("Account not found.");
+        }
+        return ServiceResponse.success("Get record sequence successfully.", seq);
+    }
+
+    /**
+     * Increase the record change sequence of an account and return the new value; the row stays locked until the
+     * surrounding transaction ends, so concurrent writers of the same account commit in sequence order. Must be
+     * called inside the transaction that writes the records.
+     *
+     * @param uuid account uuid
+     * @return ServiceResponse with the new sequence
+     */
+    @Transactional
+    public ServiceResponse<Long> nextRecordSeq(String uuid) {
+        if (this.baseMapper.incrementRecordSeq(uuid) == 0) {
+            return ServiceResponse.error("Account not found.");
+        }
+        return ServiceResponse.success("Increase record sequence successfully.", this.baseMapper.selectRecordSeq(uuid));
+    }
 }
@@ -0,0 +1,18 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import tech.sjiale.hoyo_achievement_server.dto.AuthContext;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+
+public interface AuthContextService {
+    ServiceResponse<AuthContext> getAuthContext(Long userId);
+
+    ServiceResponse<AuthContext> getAuthContext(Long userId, long minAccountEpoch);
+
+    void invalidateUser(Long userId);
+
+    void denyUser(Long userId);
+
+    void allowUser(Long userId);
+
+    boolean isDenied(Long userId);
+}
@@ -0,0 +1,167 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.sjiale.hoyo_achievement_server.dto.AuthContext;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.entity.Account;
+import tech.sjiale.hoyo_achievement_server.entity.User;
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
+import tech.sjiale.hoyo_achievement_server.mapper.AccountMapper;
+import tech.sjiale.hoyo_achievement_server.mapper.UserMapper;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service("authContextService")
+@RequiredArgsConstructor
+public class AuthContextServiceImpl implements AuthContextService {
+
+    @Value("${app.auth.cache-size:10000}")
+    private int cacheSize;
+    @Value("${app.auth.cache-ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    // Use mappers directly, since user and account services invalidate this cache
+    private final UserMapper userMapper;
+    private final AccountMapper accountMapper;
+
+    private LRUCache<Long, AuthContext> cache;
+    // Disabled users; their requests are refused even before the kickout reaches every token. Loaded from the users
+    // table at startup and refreshed periodically, so users disabled on other nodes are refused here too.
+    private final Set<Long> deniedUsers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    private void initCache() {
+        cache = CacheUtil.newLRUCache(cacheSize, cacheTtlSeconds * 1000);
+        refreshDeniedUsers();
+    }
+
+    /**
+     * Read the disabled users again; the table is the source of truth, so a change made on any node takes effect
+     * here within the refresh interval. A refresh that reads the table just before a local status change commits may
+     * drop that user for one interval; the kickout has already been written to the token store by then.
+     */
+    @Scheduled(fixedDelayString = "${app.auth.deny-refresh-ms:5000}",
+            initialDelayString = "${app.auth.deny-refresh-ms:5000}")
+    public void refreshDeniedUsers() {
+        Set<Long> disabled = userMapper.selectObjs(Wrappers.<User>lambdaQuery()
+                        .select(User::getId)
+                        .eq(User::getStatus, UserStatus.DISABLED))
+                .stream()
+                .map(id -> ((Number) id).longValue())
+                .collect(Collectors.toSet());
+        deniedUsers.addAll(disabled);
+        deniedUsers.retainAll(disabled);
+        log.debug("Refresh {} denied users.", disabled.size());
+    }
+
+    /**
+     * Get the authorization context of a user; served from cache, loaded with two queries on a miss
+     *
+     * @param userId user id
+     * @return ServiceResponse with AuthContext
+     */
+    public ServiceResponse<AuthContext> getAuthContext(Long userId) {
+        return getAuthContext(userId, 0);
+    }
+
+    /**
+     * Get the authorization context of a user, reloading a cached one older than the given account ownership epoch;
+     * a signed token carries the epoch of its login, so a node that cached the context before that login reloads it.
+     * Only an older cached context is reloaded: a token keeps the epoch of its login for its whole lifetime, so
+     * reloading whenever the epochs differ would query on every request after the user's next account change. An
+     * account created or deleted on another node after the login is therefore seen here only once the cached context
+     * expires (app.auth.cache-ttl-seconds); until then a deleted account still counts as owned, which only exposes the
+     * owner's own, already deleted records.
+     *
+     * @param userId          user id
+     * @param minAccountEpoch lowest account ownership epoch accepted from cache
+     * @return ServiceResponse with AuthContext
+     */
+    public ServiceResponse<AuthContext> getAuthContext(Long userId, long minAccountEpoch) {
+        AuthContext context = cache.get(userId);
+        if (context != null && context.accountEpoch() >= minAccountEpoch) {
+            return ServiceResponse.success("Get auth context from cache successfully.", context);
+        }
+
+        User user = userMapper.selectById(userId);
+        if (user == null) {
+            return ServiceResponse.error("User id doesn't exist: " + userId);
+        }
+        Set<String> accountUuids = accountMapper.selectList(Wrappers.<Account>lambdaQuery()
+                        .select(Account::getAccountUuid)
+                        .eq(Account::getUserId, userId))
+                .stream()
+                .map(Account::getAccountUuid)
+                .collect(Collectors.toSet());
+
+        // The reload is fresh, so a user disabled on another node is denied without waiting for the refresh
+        if (user.getStatus() == UserStatus.DISABLED) {
+            deniedUsers.add(userId);
+        }
+
+        long accountEpoch = user.getAccountEpoch() == null ? 0 : user.getAccountEpoch();
+        context = new AuthContext(userId, user.getRole(), user.getStatus(), accountUuids, accountEpoch);
+        cache.put(userId, context);
+        log.debug("Load auth context for user {}.", userId);
+        return ServiceResponse.success("Load auth context successfully.", context);
+    }
+
+    /**
+     * Drop the cached context of a user; if called inside a transaction, drop it again after completion, so a
+     * concurrent read cannot keep the state from before the commit
+     *
+     * @param userId user id
+     */
+    public void invalidateUser(Long userId) {
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.remove(userId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Refuse every request of a user from now on
+     *
+     * @param userId user id
+     */
+    public void denyUser(Long userId) {
+        deniedUsers.add(userId);
+    }
+
+    /**
+     * Accept the requests of a user again
+     *
+     * @param userId user id
+     */
+    public void allowUser(Long userId) {
+        deniedUsers.remove(userId);
+    }
+
+    /**
+     * Check if a user is denied; a set lookup, so it can run on every request
+     *
+     * @param userId user id
+     * @return true if denied
+     */
+    public boolean isDenied(Long userId) {
+        return deniedUsers.contains(userId);
+    }
+}
@@ -0,0 +1,17 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import tech.sjiale.hoyo_achievement_server.dto.CatalogSnapshot;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.entity.SrAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.SrBranch;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzBranch;
+
+public interface CatalogService {
+    ServiceResponse<CatalogSnapshot<SrAchievement, SrBranch>> getSrCatalog();
+
+    ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> getZzzCatalog();
+
+    // Data migration use
+    ServiceResponse<?> refreshCatalog();
+}
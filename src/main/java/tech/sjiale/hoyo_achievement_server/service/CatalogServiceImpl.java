@@ -0,0 +1,170 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import cn.dev33.satoken.util.SaResult;
+import cn.hutool.core.util.ZipUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import tech.sjiale.hoyo_achievement_server.dto.CatalogPayload;
+import tech.sjiale.hoyo_achievement_server.dto.CatalogSnapshot;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.entity.SrAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.SrBranch;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzBranch;
+import tech.sjiale.hoyo_achievement_server.util.BranchIndex;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Service("catalogService")
+@RequiredArgsConstructor
+public class CatalogServiceImpl implements CatalogService {
+
+    private final SrAchievementService srAchievementService;
+    private final SrBranchService srBranchService;
+    private final ZzzAchievementService zzzAchievementService;
+    private final ZzzBranchService zzzBranchService;
+    private final ObjectMapper objectMapper;
+
+    // Not synchronized, a virtual thread blocked on the queries inside would pin its carrier
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final AtomicReference<CatalogSnapshot<SrAchievement, SrBranch>> srCatalog = new AtomicReference<>();
+    private final AtomicReference<CatalogSnapshot<ZzzAchievement, ZzzBranch>> zzzCatalog = new AtomicReference<>();
+
+    /**
+     * Get the current SR catalog; load it from the database on first use
+     *
+     * @return ServiceResponse with SR CatalogSnapshot
+     */
+    public ServiceResponse<CatalogSnapshot<SrAchievement, SrBranch>> getSrCatalog() {
+        CatalogSnapshot<SrAchievement, SrBranch> snapshot = srCatalog.get();
+        if (snapshot == null) {
+            ServiceResponse<?> response = refreshCatalog();
+            if (!response.success()) {
+                return ServiceResponse.error(response.message());
+            }
+            snapshot = srCatalog.get();
+        }
+        return ServiceResponse.success("Get SR catalog successfully.", snapshot);
+    }
+
+    /**
+     * Get the current ZZZ catalog; load it from the database on first use
+     *
+     * @return ServiceResponse with ZZZ CatalogSnapshot
+     */
+    public ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> getZzzCatalog() {
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> snapshot = zzzCatalog.get();
+        if (snapshot == null) {
+            ServiceResponse<?> response = refreshCatalog();
+            if (!response.success()) {
+                return ServiceResponse.error(response.message());
+            }
+            snapshot = zzzCatalog.get();
+        }
+        return ServiceResponse.success("Get ZZZ catalog successfully.", snapshot);
+    }
+
+    /**
+     * Reload both catalogs from the database and swap them in; should be called after migrations are committed
+     *
+     * @return ServiceResponse
+     */
+    public ServiceResponse<?> refreshCatalog() {
+        refreshLock.lock();
+        try {
+            return loadCatalog();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Load both catalogs and swap them in; must hold the refresh lock
+     *
+     * @return ServiceResponse
+     */
+    private ServiceResponse<?> loadCatalog() {
+        List<SrAchievement> srAchievements;
+        List<SrBranch> srBranches;
+        List<ZzzAchievement> zzzAchievements;
+        List<ZzzBranch> zzzBranches;
+        try {
+            srAchievements = srAchievementService.getAllAchievements().data();
+            srBranches = srBranchService.getAllBranches().data();
+            zzzAchievements = zzzAchievementService.getAllAchievements().data();
+            zzzBranches = zzzBranchService.getAllBranches().data();
+        } catch (RuntimeException e) {
+            log.error("Failed to load achievement catalog.", e);
+            return ServiceResponse.error("Failed to load achievement catalog.");
+        }
+
+        // Branch services return no data when the table is empty
+        srBranches = srBranches == null ? List.of() : srBranches;
+        zzzBranches = zzzBranches == null ? List.of() : zzzBranches;
+
+        // Build the indexes and serialize the responses once per refresh, the same way the controllers would
+        CatalogSnapshot<SrAchievement, SrBranch> newSrCatalog;
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> newZzzCatalog;
+        try {
+            CatalogPayload srAchievementsPayload = buildPayload("SR成就列表获取成功", srAchievements);
+            CatalogPayload srBranchesPayload = buildPayload("获取SR成就分支列表成功", srBranches);
+            newSrCatalog = new CatalogSnapshot<>(catalogId(srAchievementsPayload, srBranchesPayload),
+                    srAchievements, srBranches,
+                    srAchievements.stream().mapToInt(SrAchievement::getAchievementId).sorted().toArray(),
+                    BranchIndex.of(srBranches, SrBranch::getAchievementId, SrBranch::getBranchId),
+                    srAchievementsPayload, srBranchesPayload);
+            CatalogPayload zzzAchievementsPayload = buildPayload("ZZZ成就列表获取成功", zzzAchievements);
+            CatalogPayload zzzBranchesPayload = buildPayload("获取ZZZ成就分支列表成功", zzzBranches);
+            newZzzCatalog = new CatalogSnapshot<>(catalogId(zzzAchievementsPayload, zzzBranchesPayload),
+                    zzzAchievements, zzzBranches,
+                    zzzAchievements.stream().mapToInt(ZzzAchievement::getAchievementId).sorted().toArray(),
+                    BranchIndex.of(zzzBranches, ZzzBranch::getAchievementId, ZzzBranch::getBranchId),
+                    zzzAchievementsPayload, zzzBranchesPayload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize achievement catalog.", e);
+            return ServiceResponse.error("Failed to serialize achievement catalog.");
+        }
+
+        srCatalog.set(newSrCatalog);
+        zzzCatalog.set(newZzzCatalog);
+
+        log.info("Achievement catalog refreshed, SR catalog {}, ZZZ catalog {}.", newSrCatalog.id(),
+                newZzzCatalog.id());
+        return ServiceResponse.success("Refresh achievement catalog successfully.");
+    }
+
+    /**
+     * Derive the catalog id of one game from the content hashes of its payloads, so it only changes when the
+     * achievements or branches change
+     *
+     * @param achievementsPayload pre-serialized achievement list
+     * @param branchesPayload     pre-serialized branch list
+     * @return catalog id
+     */
+    private static String catalogId(CatalogPayload achievementsPayload, CatalogPayload branchesPayload) {
+        return DigestUtil.sha256Hex(achievementsPayload.etag() + branchesPayload.etag()).substring(0, 32);
+    }
+
+    /**
+     * Serialize a successful SaResult carrying the given data and compress it
+     *
+     * @param message response message
+     * @param data    response data
+     * @return CatalogPayload with a content-based ETag
+     * @throws JsonProcessingException if serialization fails
+     */
+    private CatalogPayload buildPayload(String message, List<?> data) throws JsonProcessingException {
+        byte[] identity = objectMapper.writeValueAsBytes(SaResult.ok(message).setData(data));
+        byte[] gzip = ZipUtil.gzip(identity);
+        String etag = "\"" + DigestUtil.sha256Hex(identity).substring(0, 32) + "\"";
+        return new CatalogPayload(identity, gzip, etag);
+    }
+}
@@ -0,0 +1,9 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+
+public interface LoginThrottleService {
+    ServiceResponse<?> tryAcquire(String username, String ip);
+
+    void reset(String username);
+}
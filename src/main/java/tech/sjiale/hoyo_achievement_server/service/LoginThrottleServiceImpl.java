@@ -0,0 +1,77 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service("loginThrottleService")
+public class LoginThrottleServiceImpl implements LoginThrottleService {
+
+    @Value("${app.login.username-attempts:10}")
+    private int usernameAttempts;
+    @Value("${app.login.ip-attempts:50}")
+    private int ipAttempts;
+    @Value("${app.login.window-seconds:300}")
+    private long windowSeconds;
+    @Value("${app.login.cache-size:10000}")
+    private int cacheSize;
+
+    // Attempt counters; an entry expires one window after its first attempt
+    private LRUCache<String, AtomicInteger> usernameCounters;
+    private LRUCache<String, AtomicInteger> ipCounters;
+
+    @PostConstruct
+    private void initCache() {
+        usernameCounters = CacheUtil.newLRUCache(cacheSize, windowSeconds * 1000);
+        ipCounters = CacheUtil.newLRUCache(cacheSize, windowSeconds * 1000);
+    }
+
+    /**
+     * Count a password attempt for a username and a client IP; should be called before the password is verified,
+     * so throttled attempts cost no hashing
+     *
+     * @param username username
+     * @param ip       client IP
+     * @return ServiceResponse; error if either limit is exceeded in the current window
+     */
+    public ServiceResponse<?> tryAcquire(String username, String ip) {
+        // Check the IP first, so one client can't use up the attempts of many usernames
+        if (count(ipCounters, ip) > ipAttempts) {
+            log.warn("Too many password attempts from IP: {}", ip);
+            return ServiceResponse.error("Too many password attempts from IP: " + ip);
+        }
+        if (count(usernameCounters, username) > usernameAttempts) {
+            log.warn("Too many password attempts for username: {}", username);
+            return ServiceResponse.error("Too many password attempts for username: " + username);
+        }
+        return ServiceResponse.success("Password attempt allowed.");
+    }
+
+    /**
+     * Clear the attempts of a username; should be called after a successful verification
+     *
+     * @param username username
+     */
+    public void reset(String username) {
+        usernameCounters.remove(username);
+    }
+
+    /**
+     * Increment the counter of a key in the current window
+     *
+     * @param counters counter cache
+     * @param key      username or IP
+     * @return attempts in the current window, including this one
+     */
+    private static int count(LRUCache<String, AtomicInteger> counters, String key) {
+        // Don't refresh the last access, so the window is fixed from the first attempt
+        return counters.get(key, false, AtomicInteger::new).incrementAndGet();
+    }
+}
@@ -2,6 +2,7 @@ package tech.sjiale.hoyo_achievement_server.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import tech.sjiale.hoyo_achievement_server.dto.MigrationResult;
+import tech.sjiale.hoyo_achievement_server.dto.ParsedMigration;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.DataMigration;
 
@@ -13,4 +14,6 @@ public interface MigrationService extends IService<DataMigration> {
     ServiceResponse<List<MigrationResult>> importNewData();
 
     MigrationResult handleJSONFile(String jsonFile);
+
+    MigrationResult applyMigration(ParsedMigration migration);
 }
@@ -1,7 +1,8 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.crypto.SecureUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,18 +10,33 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import tech.sjiale.hoyo_achievement_server.dto.*;
 import tech.sjiale.hoyo_achievement_server.entity.DataMigration;
 import tech.sjiale.hoyo_achievement_server.mapper.DataMigrationMapper;
 import tech.sjiale.hoyo_achievement_server.util.GitUtils;
+import tech.sjiale.hoyo_achievement_server.util.MigrationJsonReader;
+import tech.sjiale.hoyo_achievement_server.util.MigrationPlanner;
 
+import java.io.BufferedInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.io.IOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 @Slf4j
@@ -28,6 +44,9 @@ import java.util.stream.Stream;
 @RequiredArgsConstructor
 public class MigrationServiceImpl extends ServiceImpl<DataMigrationMapper, DataMigration> implements MigrationService {
 
+    // Rows handed to a batch handler at a time
+    private static final int ROW_CHUNK_SIZE = 500;
+
     @Autowired
     @Lazy
     private MigrationService self;
@@ -38,12 +57,17 @@ public class MigrationServiceImpl extends ServiceImpl<DataMigrationMapper, DataM
     private boolean enableJGit;
     @Value("${app.data.repo-url}")
     private String dataUrl;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
     private final ServerInfoService serverInfoService;
     private final SrAchievementService srAchievementService;
     private final SrBranchService srBranchService;
     private final ZzzAchievementService zzzAchievementService;
     private final ZzzBranchService zzzBranchService;
+    private final CatalogService catalogService;
+    private final SrUserRecordService srUserRecordService;
+    private final ZzzUserRecordService zzzUserRecordService;
 
     /**
      * Get all data migration record; file's path are hidden
@@ -70,6 +94,8 @@ public class MigrationServiceImpl extends ServiceImpl<DataMigrationMapper, DataM
 
     /**
      * Import new data from a directory.
+     * All files are parsed once, then applied in dependency order; files with missing or cyclic dependencies are
+     * reported as failed without touching the database.
      *
      * @return ServiceResponse
      */
@@ -91,28 +117,109 @@ public class MigrationServiceImpl extends ServiceImpl<DataMigrationMapper, DataM
                 return ServiceResponse.error("No JSON file found in directory: " + dataFolder);
             }
 
+            // Load every applied migration in one query
+            List<DataMigration> appliedList = this.lambdaQuery()
+                    .select(DataMigration::getId, DataMigration::getName, DataMigration::getPath,
+                            DataMigration::getContentHash, DataMigration::getFileSize, DataMigration::getFileMtime)
+                    .list();
+            Map<String, DataMigration> appliedByName = new HashMap<>();
+            Map<String, DataMigration> appliedByPath = new HashMap<>();
+            for (DataMigration applied : appliedList) {
+                appliedByName.put(applied.getName(), applied);
+                appliedByPath.put(applied.getPath(), applied);
+            }
+            Set<String> appliedNames = appliedByName.keySet();
+
             // Return list
             List<MigrationResult> results = new ArrayList<>();
 
-            // handle JSON files
-            List<String> failedFiles = new ArrayList<>();
+            // Skip files whose path, size and mtime match an applied one without reading them
+            List<String> filesToParse = new ArrayList<>();
             for (String jsonFile : jsonFiles) {
-                MigrationResult result = self.handleJSONFile(jsonFile);
-                if (result.status() == ImportStatus.FAIL) {
-                    failedFiles.add(jsonFile);
+                DataMigration applied = appliedByPath.get(jsonFile);
+                if (applied != null && isFileStampMatched(applied, jsonFile)) {
+                    results.add(MigrationResult.imported(applied.getName()));
                 } else {
-                    results.add(result);
+                    filesToParse.add(jsonFile);
                 }
             }
-            // Second chance for failed files
-            for (String failedFile : failedFiles) {
-                MigrationResult result = self.handleJSONFile(failedFile);
+            log.info("{} of {} JSON files unchanged since last import.", jsonFiles.size() - filesToParse.size(),
+                    jsonFiles.size());
+
+            // Parse the rest once; parsing is independent per file
+            List<ServiceResponse<ParsedMigration>> parsed = parseMigrationFiles(filesToParse);
+
+            List<ParsedMigration> migrations = new ArrayList<>();
+            for (int i = 0; i < parsed.size(); i++) {
+                ServiceResponse<ParsedMigration> response = parsed.get(i);
+                if (!response.success()) {
+                    results.add(MigrationResult.failed(filesToParse.get(i), response.message()));
+                    continue;
+                }
+
+                // Already applied: compare the content, and record the new stamp so the next run can skip it
+                ParsedMigration migration = response.data();
+                DataMigration applied = appliedByName.get(migration.name());
+                if (applied == null) {
+                    migrations.add(migration);
+                } else if (applied.getContentHash() != null
+                        && !applied.getContentHash().equals(migration.contentHash())) {
+                    log.warn("Migration file '{}' changed after it was imported: {}", migration.name(),
+                            migration.path());
+                    results.add(MigrationResult.changed(migration.name(), "Content changed after import"));
+                } else {
+                    updateFileStamp(applied, migration);
+                    results.add(MigrationResult.imported(migration.name()));
+                }
+            }
+
+            // Order the files by their dependencies against the names already imported
+            MigrationPlan plan = MigrationPlanner.plan(migrations, appliedNames);
+            results.addAll(plan.results());
+
+            // Apply in order, one transaction per file; skip files whose dependency failed in this run
+            Set<String> failedNames = new HashSet<>();
+            for (ParsedMigration migration : plan.ordered()) {
+                String failedDependency = migration.depends().stream()
+                        .filter(failedNames::contains)
+                        .findFirst()
+                        .orElse(null);
+                if (failedDependency != null) {
+                    failedNames.add(migration.name());
+                    results.add(MigrationResult.failed(migration.name(),
+                            "Dependency '" + failedDependency + "' failed to import"));
+                    continue;
+                }
+
+                MigrationResult result;
+                try {
+                    result = self.applyMigration(migration);
+                } catch (RuntimeException e) {
+                    log.error("Failed to import migration file: {}", migration.path(), e);
+                    result = MigrationResult.failed(migration.name(), e.getMessage());
+                }
                 if (result.status() == ImportStatus.FAIL) {
-                    log.warn("Failed to import file twice: {}", failedFile);
+                    failedNames.add(migration.name());
                 }
                 results.add(result);
             }
 
+            // Swap in the new catalog once all successful files are committed
+            if (results.stream().anyMatch(result -> result.status() == ImportStatus.SUCCESS)) {
+                ServiceResponse<?> refreshResponse = catalogService.refreshCatalog();
+                if (!refreshResponse.success()) {
+                    log.error(refreshResponse.message());
+                }
+
+                // Achievements may have moved between classes or changed reward, rebuild the account summaries
+                for (ServiceResponse<?> recomputeResponse : List.of(srUserRecordService.recomputeSummaries(),
+                        zzzUserRecordService.recomputeSummaries())) {
+                    if (!recomputeResponse.success()) {
+                        log.error(recomputeResponse.message());
+                    }
+                }
+            }
+
             log.debug("Import new data from directory successfully.");
             return ServiceResponse.success("Import new data successfully.", results);
         } else {
@@ -155,129 +262,252 @@ public class MigrationServiceImpl extends ServiceImpl<DataMigrationMapper, DataM
     }
 
     /**
-     * Handle a JSON file; This is a transaction, It will roll back and throw an exception if failed
+     * Check if a file still has the size and mtime recorded when it was imported
      *
+     * @param applied  applied migration record
      * @param jsonFile JSON file path
-     * @return MigrationResult
+     * @return true if both match; false if not recorded or the file can't be read
      */
-    @Transactional
-    public MigrationResult handleJSONFile(String jsonFile) {
-        log.debug("handle JSON file: {}", jsonFile);
-
-        ObjectMapper mapper = new ObjectMapper();
-        MigrationFile migrationFile;
+    private static boolean isFileStampMatched(DataMigration applied, String jsonFile) {
+        if (applied.getFileSize() == null || applied.getFileMtime() == null) return false;
 
-        // Try to read and parse the JSON file
         try {
-            byte[] jsonBytes = Files.readAllBytes(Paths.get(jsonFile));
-            migrationFile = mapper.readValue(jsonBytes, MigrationFile.class);
+            Path path = Paths.get(jsonFile);
+            return Files.size(path) == applied.getFileSize()
+                    && Files.getLastModifiedTime(path).toMillis() == applied.getFileMtime();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Record the current path, hash, size and mtime of an applied migration file if any of them changed
+     *
+     * @param applied   applied migration record
+     * @param migration parsed migration of the same name
+     */
+    private void updateFileStamp(DataMigration applied, ParsedMigration migration) {
+        if (migration.path().equals(applied.getPath())
+                && migration.contentHash().equals(applied.getContentHash())
+                && Long.valueOf(migration.fileSize()).equals(applied.getFileSize())
+                && Long.valueOf(migration.fileMtime()).equals(applied.getFileMtime())) {
+            return;
+        }
+
+        boolean updated = this.lambdaUpdate()
+                .eq(DataMigration::getId, applied.getId())
+                .set(DataMigration::getPath, migration.path())
+                .set(DataMigration::getContentHash, migration.contentHash())
+                .set(DataMigration::getFileSize, migration.fileSize())
+                .set(DataMigration::getFileMtime, migration.fileMtime())
+                .update();
+        if (!updated) {
+            log.warn("Failed to update file stamp of migration '{}'.", applied.getName());
+        }
+    }
+
+    /**
+     * Parse migration files concurrently, one virtual thread per file in the virtual thread mode, otherwise on the
+     * common pool
+     *
+     * @param jsonFiles JSON file paths
+     * @return parse results in the order of the files
+     */
+    private List<ServiceResponse<ParsedMigration>> parseMigrationFiles(List<String> jsonFiles) {
+        if (!virtualThreads) {
+            return jsonFiles.parallelStream().map(MigrationServiceImpl::parseMigrationFile).toList();
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ServiceResponse<ParsedMigration>>> futures = jsonFiles.stream()
+                    .map(jsonFile -> executor.submit(() -> parseMigrationFile(jsonFile)))
+                    .toList();
+            List<ServiceResponse<ParsedMigration>> parsed = new ArrayList<>(futures.size());
+            for (Future<ServiceResponse<ParsedMigration>> future : futures) {
+                parsed.add(future.get());
+            }
+            return parsed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while parsing migration files.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to parse migration files.", e.getCause());
+        }
+    }
+
+    /**
+     * Read and validate a JSON file
+     *
+     * @param jsonFile JSON file path
+     * @return ServiceResponse with ParsedMigration; the message is the failure reason
+     */
+    private static ServiceResponse<ParsedMigration> parseMigrationFile(String jsonFile) {
+        log.debug("Parse JSON file: {}", jsonFile);
+
+        // Read the top-level fields and hash the content in one pass; the payload is skipped, not held
+        MigrationHeader header;
+        String contentHash;
+        long fileSize;
+        long fileMtime;
+        Path path = Paths.get(jsonFile);
+        MessageDigest digest = SecureUtil.createJdkMessageDigest("SHA-256");
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(Files.newInputStream(path)), digest)) {
+            fileMtime = Files.getLastModifiedTime(path).toMillis();
+            header = MigrationJsonReader.readHeader(in);
+
+            // Hash the trailing bytes the parser didn't need
+            in.transferTo(OutputStream.nullOutputStream());
+            fileSize = Files.size(path);
+            contentHash = HexUtil.encodeHexStr(digest.digest());
         } catch (IOException e) {
             log.warn("Failed to read or parse JSON file: {} | error: {}", jsonFile, e.getMessage());
-            return MigrationResult.failed(jsonFile, "Failed to read or parse JSON file");
+            return ServiceResponse.error("Failed to read or parse JSON file");
         }
 
         // Check if the JSON file is in valid format
-        if (migrationFile.name() == null || migrationFile.name().isBlank()) {
+        if (header.name() == null || header.name().isBlank()) {
             log.warn("Invalid JSON file: 'name' is missing. file={}", jsonFile);
-            return MigrationResult.failed(jsonFile, "Invalid JSON file: 'name' is missing");
+            return ServiceResponse.error("Invalid JSON file: 'name' is missing");
         }
-        if (migrationFile.type() == null || migrationFile.type().isBlank()) {
+        if (header.type() == null || header.type().isBlank()) {
             log.warn("Invalid JSON file: 'type' is missing. file={}", jsonFile);
-            return MigrationResult.failed(jsonFile, "Invalid JSON file: 'type' is missing");
+            return ServiceResponse.error("Invalid JSON file: 'type' is missing");
         }
-        if (migrationFile.payload() == null) {
+        if (!header.hasPayload()) {
             log.warn("Invalid JSON file: 'payload' is missing. file={}", jsonFile);
-            return MigrationResult.failed(jsonFile, "Invalid JSON file: 'payload' is missing");
+            return ServiceResponse.error("Invalid JSON file: 'payload' is missing");
+        }
+        if (!header.type().equals("data") && !header.type().equals("patch")) {
+            log.warn("Unknown migration type '{}' in file {}", header.type(), jsonFile);
+            return ServiceResponse.error("Unknown migration type '" + header.type() + "'");
+        }
+
+        return ServiceResponse.success("Parse JSON file successfully.",
+                new ParsedMigration(jsonFile, header, contentHash, fileSize, fileMtime));
+    }
+
+    /**
+     * Handle a JSON file; This is a transaction, It will roll back and throw an exception if failed
+     *
+     * @param jsonFile JSON file path
+     * @return MigrationResult
+     */
+    @Transactional
+    public MigrationResult handleJSONFile(String jsonFile) {
+        log.debug("handle JSON file: {}", jsonFile);
+
+        ServiceResponse<ParsedMigration> parsed = parseMigrationFile(jsonFile);
+        if (!parsed.success()) {
+            return MigrationResult.failed(jsonFile, parsed.message());
         }
 
         // Check if the migration file has been imported before
-        {
-            DataMigration migration = this.lambdaQuery()
-                    .eq(DataMigration::getName, migrationFile.name())
-                    .one();
-            if (migration != null) {
-                log.info("Migration file '{}' has been imported before.", migrationFile.name());
-                return MigrationResult.imported(migrationFile.name());
-            }
+        if (this.lambdaQuery().eq(DataMigration::getName, parsed.data().name()).exists()) {
+            log.info("Migration file '{}' has been imported before.", parsed.data().name());
+            return MigrationResult.imported(parsed.data().name());
         }
 
-        // Handle different types of JSON file
-        return switch (migrationFile.type()) {
-            case "data", "patch" -> {
-                // If handle successfully, insert into the database
-                if (handleJSON(migrationFile, jsonFile)) {
-                    DataMigration migration = new DataMigration();
-                    migration.setName(migrationFile.name());
-                    migration.setPath(jsonFile);
-                    migration.setType(migrationFile.type());
-                    migration.setDepends(migrationFile.depends());
-
-                    // Save the migration record to the database
-                    boolean saved = this.save(migration);
-                    if (saved) {
-                        log.info("Migration file '{}' imported successfully.", migrationFile.name());
-                        yield MigrationResult.success(migrationFile.name());
-                    } else {
-                        throw new RuntimeException("Failed to save migration record to database.");
-                    }
-                } else {
-                    yield MigrationResult.failed(migrationFile.name(), "Failed to handle JSON file");
-                }
-            }
-            default -> {
-                log.warn("Unknown migration type '{}' in file {}", migrationFile.type(), jsonFile);
-                yield MigrationResult.failed(migrationFile.name(), "Unknown migration type '" + migrationFile.type() + "'");
-            }
-        };
+        return applyMigration(parsed.data());
+    }
+
+    /**
+     * Apply a parsed migration and record it; This is a transaction, It will roll back and throw an exception if
+     * failed
+     *
+     * @param migration parsed migration; must not have been imported before
+     * @return MigrationResult
+     */
+    @Transactional
+    public MigrationResult applyMigration(ParsedMigration migration) {
+        MigrationHeader header = migration.header();
+
+        // If handle successfully, insert into the database; otherwise drop the operations already applied
+        if (!handleJSON(migration)) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return MigrationResult.failed(header.name(), "Failed to handle JSON file");
+        }
+
+        DataMigration record = new DataMigration();
+        record.setName(header.name());
+        record.setPath(migration.path());
+        record.setType(header.type());
+        record.setDepends(header.depends());
+        record.setContentHash(migration.contentHash());
+        record.setFileSize(migration.fileSize());
+        record.setFileMtime(migration.fileMtime());
+
+        // Save the migration record to the database
+        if (!this.save(record)) {
+            throw new RuntimeException("Failed to save migration record to database.");
+        }
+        log.info("Migration file '{}' imported successfully.", header.name());
+        return MigrationResult.success(header.name());
     }
 
     /**
      * Handle JSON with type 'data' or 'patch'; It will throw an exception if failed
      *
-     * @param migrationFile migration file
-     * @param filePath      JSON file path
+     * @param migration parsed migration
      * @return true if successfully handle all operations, false if the format invalid
      */
-    private boolean handleJSON(MigrationFile migrationFile, String filePath) {
+    private boolean handleJSON(ParsedMigration migration) {
+        String filePath = migration.path();
         log.debug("Handle data file: {}", filePath);
 
-        // Check dependencies
-        for (String dependency : migrationFile.depends()) {
-            List<DataMigration> migration = this.lambdaQuery().eq(DataMigration::getName, dependency).list();
-            if (migration.isEmpty()) {
-                log.debug("Dependency '{}' not satisfy for file {}", dependency, filePath);
-                return false;
-            } else if (migration.size() > 1) {
-                log.error("Return multiple dependency '{}', dependency should unique in database", dependency);
+        // Check dependencies in one query; names are unique in the database
+        List<String> depends = migration.depends();
+        if (!depends.isEmpty()) {
+            long found = this.lambdaQuery().in(DataMigration::getName, depends).count();
+            if (found != depends.size()) {
+                log.debug("Dependencies {} not satisfy for file {}", depends, filePath);
                 return false;
             }
         }
 
-        // Apply operations in payload
-        for (MigrationOperation operation : migrationFile.payload().operations()) {
-            // Check if the operation is valid
-            if (operation.table() == null || operation.table().isBlank()) {
-                log.warn("Invalid operation: 'table' is missing. file={}", filePath);
-                return false;
-            }
+        // Stream operations in payload, a chunk of rows at a time
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(Paths.get(filePath)))) {
+            return MigrationJsonReader.readOperations(in, ROW_CHUNK_SIZE,
+                    operation -> handleOperation(operation, filePath));
+        } catch (IOException e) {
+            log.warn("Failed to read or parse JSON file: {} | error: {}", filePath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Handle a chunk of rows of one operation; It will throw an exception if failed
+     *
+     * @param operation operation with a chunk of its rows
+     * @param filePath  JSON file path
+     * @return true if handled, false if the operation is invalid
+     */
+    private boolean handleOperation(MigrationOperation operation, String filePath) {
+        // Check if the operation is valid
+        if (operation.table() == null || operation.table().isBlank()) {
+            log.warn("Invalid operation: 'table' is missing. file={}", filePath);
+            return false;
+        }
+        if (operation.action() == null) {
+            log.warn("Invalid operation: 'action' is missing. file={}", filePath);
+            return false;
+        }
 
-            switch (operation.action()) {
-                case "insert":
-                    handleInsert(operation.table(), operation.values());
-                    break;
+        switch (operation.action()) {
+            case "insert":
+                handleInsert(operation.table(), operation.values());
+                break;
 
-                case "update":
-                    handleUpdate(operation.table(), operation.values());
-                    break;
+            case "update":
+                handleUpdate(operation.table(), operation.values());
+                break;
 
-                case "delete":
-                    handleDelete(operation.table(), operation.values());
-                    break;
+            case "delete":
+                handleDelete(operation.table(), operation.values());
+                break;
 
-                default:
-                    log.warn("Unknown action '{}'", operation.action());
-                    return false;
-            }
+            default:
+                log.warn("Unknown action '{}'", operation.action());
+                return false;
         }
         return true;
     }
@@ -0,0 +1,9 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+public interface PasswordService {
+    String encode(String rawPassword);
+
+    boolean matches(String rawPassword, String encodedPassword);
+
+    boolean needsRehash(String encodedPassword);
+}
@@ -0,0 +1,164 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import cn.hutool.core.thread.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service("passwordService")
+public class PasswordServiceImpl implements PasswordService {
+
+    @Value("${app.password.pool-size:0}")
+    private int poolSize;
+    @Value("${app.password.queue-size:32}")
+    private int queueSize;
+    @Value("${app.password.timeout-ms:5000}")
+    private long timeoutMs;
+    @Value("${app.password.strength:0}")
+    private int configuredStrength;
+    @Value("${app.password.target-ms:250}")
+    private long targetMs;
+    @Value("${app.password.min-strength:10}")
+    private int minStrength;
+    @Value("${app.password.max-strength:14}")
+    private int maxStrength;
+
+    // Strength measured at startup; each step doubles the cost
+    private static final int BASE_STRENGTH = 10;
+    private static final String CALIBRATION_PASSWORD = "Calibration#2024";
+    // The cost is stored in every hash: $2a$10$...
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    // Thread-safe, shared by every hash and verification
+    private PasswordEncoder passwordEncoder;
+    private int strength;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    private void init() {
+        strength = configuredStrength > 0 ? configuredStrength : calibrateStrength();
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        log.info("Password hashes use BCrypt strength {}.", strength);
+
+        // BCrypt is CPU-bound, more threads than cores only add contention
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                ThreadFactoryBuilder.create().setNamePrefix("password-").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Password worker pool started with {} threads and a queue of {}.", threads, queueSize);
+    }
+
+    @PreDestroy
+    private void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hash a password on the password worker pool
+     *
+     * @param rawPassword raw password
+     * @return BCrypt hash
+     * @throws ResponseStatusException with 429 if the pool is saturated
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verify a password against a stored hash on the password worker pool
+     *
+     * @param rawPassword     raw password
+     * @param encodedPassword stored BCrypt hash
+     * @return true if the password matches
+     * @throws ResponseStatusException with 429 if the pool is saturated
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Check if a stored hash was made with another strength than the current one, either weaker or stronger
+     *
+     * @param encodedPassword stored BCrypt hash
+     * @return true if the hash should be replaced after the next successful verification
+     */
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * Pick the strength whose verification time is closest to the target on this machine; measured once at the base
+     * strength and extrapolated, since each step doubles the cost
+     *
+     * @return BCrypt strength within the configured bounds
+     */
+    private int calibrateStrength() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(BASE_STRENGTH);
+        String hash = encoder.encode(CALIBRATION_PASSWORD);
+
+        // Best of three, the first runs are still being compiled
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            encoder.matches(CALIBRATION_PASSWORD, hash);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double steps = Math.log(targetMs * 1_000_000.0 / best) / Math.log(2);
+        int calibrated = Math.clamp(BASE_STRENGTH + Math.round(steps), minStrength, maxStrength);
+        log.info("BCrypt strength {} takes {} ms, calibrated to strength {} for a target of {} ms.",
+                BASE_STRENGTH, best / 1_000_000, calibrated, targetMs);
+        return calibrated;
+    }
+
+    /**
+     * Run a task on the worker pool and wait for it; the calling request thread only waits, so at most pool size
+     * hashes run at once and a full queue is rejected at once instead of piling up request threads
+     *
+     * @param task hashing task
+     * @return task result
+     */
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password worker pool is saturated, request rejected.");
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "服务器繁忙，请稍后再试");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Password task timed out after {} ms.", timeoutMs);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "服务器繁忙，请稍后再试");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for password task.", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password task failed.", e.getCause());
+        }
+    }
+}
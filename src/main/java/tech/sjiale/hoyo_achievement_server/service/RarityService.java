@@ -0,0 +1,19 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import tech.sjiale.hoyo_achievement_server.dto.RarityStats;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.entity.nume.GameType;
+
+import java.util.Map;
+
+public interface RarityService {
+    ServiceResponse<RarityStats> getRarity(GameType gameType);
+
+    void recordCompletions(GameType gameType, Map<Integer, Integer> completions);
+
+    void forgetAccount(GameType gameType, String uuid);
+
+    void flush();
+
+    ServiceResponse<?> rebuild();
+}
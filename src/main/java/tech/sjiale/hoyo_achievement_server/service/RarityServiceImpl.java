@@ -0,0 +1,312 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.sjiale.hoyo_achievement_server.dto.AchievementRarity;
+import tech.sjiale.hoyo_achievement_server.dto.CatalogSnapshot;
+import tech.sjiale.hoyo_achievement_server.dto.RarityStats;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.entity.Account;
+import tech.sjiale.hoyo_achievement_server.entity.AchievementStats;
+import tech.sjiale.hoyo_achievement_server.entity.SrUserRecord;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzUserRecord;
+import tech.sjiale.hoyo_achievement_server.entity.nume.GameType;
+import tech.sjiale.hoyo_achievement_server.mapper.AccountMapper;
+import tech.sjiale.hoyo_achievement_server.mapper.AchievementStatsMapper;
+import tech.sjiale.hoyo_achievement_server.mapper.SrUserRecordMapper;
+import tech.sjiale.hoyo_achievement_server.mapper.ZzzUserRecordMapper;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Completion counts of every achievement over all accounts. Record updates only add to striped in-memory counters
+ * after their transaction commits; the counters are flushed to achievement_stats periodically and the table is read
+ * back after each flush, so the changes flushed by other nodes show up within one interval. A full scan of the record
+ * tables happens only on rebuild, so reading the rarity costs O(catalog) regardless of the number of users.
+ */
+@Slf4j
+@Service("rarityService")
+@RequiredArgsConstructor
+public class RarityServiceImpl implements RarityService {
+
+    private final AchievementStatsMapper achievementStatsMapper;
+    private final AccountMapper accountMapper;
+    private final SrUserRecordMapper srUserRecordMapper;
+    private final ZzzUserRecordMapper zzzUserRecordMapper;
+    private final CatalogService catalogService;
+
+    // Rows per multi-row upsert statement
+    private static final int FLUSH_CHUNK_SIZE = 500;
+
+    /**
+     * Counters of one game. events only ever grows by the committed changes since startup; flushed is the part of
+     * events already written to the table, and base is the table content minus flushed when it was last read, so
+     * the current count is base + events and the next flush writes events - flushed.
+     */
+    private static final class GameCounters {
+        final ConcurrentHashMap<Integer, LongAdder> events = new ConcurrentHashMap<>();
+        // Guarded by the lock
+        final Map<Integer, Long> flushed = new HashMap<>();
+        volatile Map<Integer, Long> base;
+        volatile long accounts;
+    }
+
+    private final Map<GameType, GameCounters> counters = new EnumMap<>(Map.of(
+            GameType.SR, new GameCounters(),
+            GameType.ZZZ, new GameCounters()));
+
+    // Serializes loading, flushing and rebuilding
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Get the share of accounts that completed each achievement of a game
+     *
+     * @param gameType game
+     * @return ServiceResponse with RarityStats
+     */
+    public ServiceResponse<RarityStats> getRarity(GameType gameType) {
+        ServiceResponse<? extends CatalogSnapshot<?, ?>> catalogResponse = gameType == GameType.SR
+                ? catalogService.getSrCatalog()
+                : catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<?, ?> catalog = catalogResponse.data();
+
+        GameCounters gameCounters = loaded(gameType);
+        Map<Integer, Long> base = gameCounters.base;
+        long accounts = gameCounters.accounts;
+
+        List<AchievementRarity> achievements = new ArrayList<>(catalog.achievementIds().length);
+        for (int achievementId : catalog.achievementIds()) {
+            LongAdder adder = gameCounters.events.get(achievementId);
+            long completed = Math.max(0, base.getOrDefault(achievementId, 0L) + (adder == null ? 0 : adder.sum()));
+            double percent = accounts == 0 ? 0 : Math.round(completed * 10000.0 / accounts) / 100.0;
+            achievements.add(new AchievementRarity(achievementId, completed, percent));
+        }
+        return ServiceResponse.success("Get " + gameType + " achievement rarity successfully.",
+                new RarityStats(catalog.id(), accounts, achievements));
+    }
+
+    /**
+     * Count completions and un-completions of an account; applied once the surrounding transaction commits, so a
+     * rolled back update isn't counted
+     *
+     * @param gameType    game
+     * @param completions +1 for each achievement that became completed, -1 for each that stopped being completed
+     */
+    public void recordCompletions(GameType gameType, Map<Integer, Integer> completions) {
+        if (completions.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(gameType, completions);
+                }
+            });
+        } else {
+            apply(gameType, completions);
+        }
+    }
+
+    /**
+     * Uncount the completed achievements of an account that is about to be deleted; must be called before the delete
+     * in the same transaction
+     *
+     * @param gameType game of the account
+     * @param uuid     account uuid
+     */
+    public void forgetAccount(GameType gameType, String uuid) {
+        List<Object> achievementIds = gameType == GameType.SR
+                ? srUserRecordMapper.selectObjs(new LambdaQueryWrapper<SrUserRecord>()
+                .select(SrUserRecord::getAchievementId)
+                .eq(SrUserRecord::getAccountUuid, uuid)
+                .eq(SrUserRecord::getComplete, 1))
+                : zzzUserRecordMapper.selectObjs(new LambdaQueryWrapper<ZzzUserRecord>()
+                .select(ZzzUserRecord::getAchievementId)
+                .eq(ZzzUserRecord::getAccountUuid, uuid)
+                .eq(ZzzUserRecord::getComplete, 1));
+
+        Map<Integer, Integer> completions = new HashMap<>();
+        for (Object achievementId : achievementIds) {
+            completions.put(((Number) achievementId).intValue(), -1);
+        }
+        recordCompletions(gameType, completions);
+    }
+
+    /**
+     * Write the counted changes to achievement_stats and refresh the account counts. A failed write is retried by the
+     * next flush, since only what was written is marked as flushed.
+     */
+    @Scheduled(fixedDelayString = "${app.rarity.flush-interval-ms:60000}",
+            initialDelayString = "${app.rarity.flush-interval-ms:60000}")
+    public void flush() {
+        lock.lock();
+        try {
+            for (GameType gameType : counters.keySet()) {
+                GameCounters gameCounters = loadedLocked(gameType);
+
+                List<AchievementStats> rows = new ArrayList<>();
+                Map<Integer, Long> totals = new HashMap<>();
+                for (Map.Entry<Integer, LongAdder> entry : gameCounters.events.entrySet()) {
+                    long total = entry.getValue().sum();
+                    long delta = total - gameCounters.flushed.getOrDefault(entry.getKey(), 0L);
+                    if (delta != 0) {
+                        rows.add(new AchievementStats(gameType, entry.getKey(), delta));
+                        totals.put(entry.getKey(), total);
+                    }
+                }
+                for (int from = 0; from < rows.size(); from += FLUSH_CHUNK_SIZE) {
+                    List<AchievementStats> chunk = rows.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, rows.size()));
+                    achievementStatsMapper.addDeltas(chunk);
+                    for (AchievementStats row : chunk) {
+                        gameCounters.flushed.put(row.getAchievementId(), totals.get(row.getAchievementId()));
+                    }
+                }
+                // Pick up what other nodes flushed since the last read
+                reloadLocked(gameType, gameCounters);
+                log.debug("Flushed {} {} achievement stats rows.", rows.size(), gameType);
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to flush achievement stats.", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recount achievement_stats from the record tables. The lock is held until the transaction completes, so no flush
+     * of this node lands between the scan and the commit, and this node's counters are reset to the new table once it
+     * is committed. Changes committed while the scan runs may be counted twice. Other nodes keep their own unflushed
+     * changes, which the scan already counted if they were committed, and add them again on their next flush; in a
+     * multi-node deployment the counts can be off by up to one flush interval of changes until the next rebuild.
+     *
+     * @return ServiceResponse
+     */
+    @Transactional
+    public ServiceResponse<?> rebuild() {
+        lock.lock();
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resetToTableLocked();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+
+        achievementStatsMapper.delete(new LambdaQueryWrapper<>());
+        achievementStatsMapper.rebuildSr();
+        achievementStatsMapper.rebuildZzz();
+
+        log.info("Rebuilt achievement stats from the user records.");
+        return ServiceResponse.success("Rebuild achievement stats successfully.");
+    }
+
+    /**
+     * Take the rebuilt table as the new base; everything counted so far is in it, so all events count as flushed.
+     * Must hold the lock.
+     */
+    private void resetToTableLocked() {
+        for (GameType gameType : counters.keySet()) {
+            GameCounters gameCounters = counters.get(gameType);
+            gameCounters.flushed.clear();
+            for (Map.Entry<Integer, LongAdder> entry : gameCounters.events.entrySet()) {
+                gameCounters.flushed.put(entry.getKey(), entry.getValue().sum());
+            }
+            reloadLocked(gameType, gameCounters);
+        }
+    }
+
+    private void apply(GameType gameType, Map<Integer, Integer> completions) {
+        GameCounters gameCounters = counters.get(gameType);
+        for (Map.Entry<Integer, Integer> completion : completions.entrySet()) {
+            gameCounters.events.computeIfAbsent(completion.getKey(), id -> new LongAdder()).add(completion.getValue());
+        }
+    }
+
+    /**
+     * Get the counters of a game, loading the table the first time
+     *
+     * @param gameType game
+     * @return GameCounters
+     */
+    private GameCounters loaded(GameType gameType) {
+        GameCounters gameCounters = counters.get(gameType);
+        if (gameCounters.base != null) {
+            return gameCounters;
+        }
+        lock.lock();
+        try {
+            return loadedLocked(gameType);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private GameCounters loadedLocked(GameType gameType) {
+        GameCounters gameCounters = counters.get(gameType);
+        if (gameCounters.base == null) {
+            reloadLocked(gameType, gameCounters);
+        }
+        return gameCounters;
+    }
+
+    /**
+     * Read the table and the account count again; the table already holds the flushed part of the events, so it
+     * is taken out of base to avoid counting it twice. Must hold the lock.
+     *
+     * @param gameType     game
+     * @param gameCounters counters of the game
+     */
+    private void reloadLocked(GameType gameType, GameCounters gameCounters) {
+        Map<Integer, Long> base = selectStats(gameType);
+        for (Map.Entry<Integer, Long> entry : gameCounters.flushed.entrySet()) {
+            base.merge(entry.getKey(), -entry.getValue(), Long::sum);
+        }
+        gameCounters.accounts = countAccounts(gameType);
+        gameCounters.base = base;
+    }
+
+    private Map<Integer, Long> selectStats(GameType gameType) {
+        Map<Integer, Long> stats = new HashMap<>();
+        for (AchievementStats row : achievementStatsMapper.selectList(new LambdaQueryWrapper<AchievementStats>()
+                .eq(AchievementStats::getGameType, gameType))) {
+            stats.put(row.getAchievementId(), row.getCompleted());
+        }
+        return stats;
+    }
+
+    private long countAccounts(GameType gameType) {
+        return accountMapper.selectCount(new LambdaQueryWrapper<Account>().eq(Account::getGameType, gameType));
+    }
+}
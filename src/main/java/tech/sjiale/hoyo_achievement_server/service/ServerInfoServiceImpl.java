@@ -1,21 +1,24 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.bean.copier.CopyOptions;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tech.sjiale.hoyo_achievement_server.dto.IdChange;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.ServerInfo;
 import tech.sjiale.hoyo_achievement_server.mapper.ServerInfoMapper;
+import tech.sjiale.hoyo_achievement_server.util.BatchUpdateUtils;
+import tech.sjiale.hoyo_achievement_server.util.MigrationRowBinders;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.Set;
 
 @Slf4j
 @Service("serverInfoService")
@@ -61,16 +64,10 @@ public class ServerInfoServiceImpl extends ServiceImpl<ServerInfoMapper, ServerI
         List<ServerInfo> inserts = new ArrayList<>();
 
         for (Map<String, Object> serverInfoMap : serverInfoMapList) {
-            ServerInfo serverInfo = BeanUtil.toBean(serverInfoMap, ServerInfo.class);
+            ServerInfo serverInfo = MigrationRowBinders.SERVER_INFO.toBean(serverInfoMap);
 
             // Check if all fields are filled
-            boolean hasMissingFields = Stream.of(
-                    serverInfo.getServerVersion(),
-                    serverInfo.getZzzVersion(),
-                    serverInfo.getSrVersion(),
-                    serverInfo.getUpdateDescription()
-            ).anyMatch(Objects::isNull);
-            if (hasMissingFields) {
+            if (MigrationRowBinders.SERVER_INFO.hasMissingField(serverInfo)) {
                 log.warn("Invalid server info for insert: {}", serverInfoMap);
                 throw new IllegalArgumentException("Invalid server info for insert.");
             }
@@ -95,8 +92,8 @@ public class ServerInfoServiceImpl extends ServiceImpl<ServerInfoMapper, ServerI
      */
     @Transactional
     public ServiceResponse<?> updateServerInfoBatch(List<Map<String, Object>> serverInfoMapList) {
-        List<ServerInfo> updates = new ArrayList<>();
-
+        // Collect the ids of all target rows
+        List<Long> oldIds = new ArrayList<>(serverInfoMapList.size());
         for (Map<String, Object> serverInfoMap : serverInfoMapList) {
             // Get record id from the map
             Object recordIdObj = serverInfoMap.get("record_id");
@@ -104,44 +101,47 @@ public class ServerInfoServiceImpl extends ServiceImpl<ServerInfoMapper, ServerI
                 log.warn("Invalid server info for update: missing 'record_id' for lookup.");
                 throw new IllegalArgumentException("Invalid server info for update: missing 'record_id' for lookup.");
             }
-            Long oldId = Long.valueOf(recordIdObj.toString());
+            oldIds.add(Long.valueOf(recordIdObj.toString()));
+        }
+
+        // Load all targets with one query, keyed by their current id
+        Map<Long, ServerInfo> targets = new HashMap<>();
+        if (!oldIds.isEmpty()) {
+            for (ServerInfo row : this.lambdaQuery().in(ServerInfo::getInfoId, new HashSet<>(oldIds)).list()) {
+                targets.put(row.getInfoId(), row);
+            }
+        }
+
+        // Apply the rows in order in memory; a row may refer to an id changed by an earlier row
+        List<IdChange<Long>> idChanges = new ArrayList<>();
+        Set<ServerInfo> updates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < serverInfoMapList.size(); i++) {
+            Long oldId = oldIds.get(i);
 
             // Find target server info
-            ServerInfo targetInfo = this.getById(oldId);
+            ServerInfo targetInfo = targets.remove(oldId);
             if (targetInfo == null) {
                 log.warn("No server info found with id: {}", oldId);
                 throw new IllegalArgumentException("No server info found with id: " + oldId);
             }
 
-            // Update target info
-            BeanUtil.fillBeanWithMap(serverInfoMap, targetInfo,
-                    CopyOptions.create()
-                            .setIgnoreNullValue(true)
-                            .setIgnoreCase(true)
-                            .setIgnoreError(true)
-            );
+            // Update target server info
+            MigrationRowBinders.SERVER_INFO.fill(serverInfoMapList.get(i), targetInfo);
 
             // Handle the situation that id is changed
             Long newId = targetInfo.getInfoId();
             if (!oldId.equals(newId)) {
-                UpdateWrapper<ServerInfo> updateWrapper = new UpdateWrapper<>();
-                updateWrapper.eq("info_id", oldId);
-                updateWrapper.set("info_id", newId);
-                boolean success = this.update(targetInfo, updateWrapper);
-                if (!success) {
-                    log.warn("Failed to update server info for id: {}", oldId);
-                    throw new RuntimeException("Failed to update server info for id: " + oldId);
-                }
-            } else {
-                // Save result to list
-                updates.add(targetInfo);
+                idChanges.add(new IdChange<>(oldId, newId));
             }
+            targets.put(newId, targetInfo);
+            updates.add(targetInfo);
         }
 
-        // Save updates results to the database
-        if (!updates.isEmpty()) {
-            this.updateBatchById(updates);
-        }
+        // Save to the database in two JDBC batches: id changes in row order, then the final state of every row
+        BatchUpdateUtils.updateIds(getSqlSessionFactory(), ServerInfo.class, ServerInfoMapper.class,
+                "info_id", idChanges);
+        BatchUpdateUtils.updateByColumn(getSqlSessionFactory(), ServerInfo.class, ServerInfoMapper.class,
+                "info_id", ServerInfo::getInfoId, updates);
 
         log.debug("Update server info batch successfully.");
         return ServiceResponse.success("Update server info batch successfully.");
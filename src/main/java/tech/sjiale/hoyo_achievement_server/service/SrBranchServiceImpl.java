@@ -1,19 +1,24 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.bean.copier.CopyOptions;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tech.sjiale.hoyo_achievement_server.dto.IdChange;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.SrBranch;
 import tech.sjiale.hoyo_achievement_server.mapper.SrBranchMapper;
+import tech.sjiale.hoyo_achievement_server.util.BatchUpdateUtils;
+import tech.sjiale.hoyo_achievement_server.util.MigrationRowBinders;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service("srBranchService")
@@ -34,38 +39,6 @@ public class SrBranchServiceImpl extends ServiceImpl<SrBranchMapper, SrBranch> i
         return ServiceResponse.success("Get all SR branches successfully.", branches);
     }
 
-    /**
-     * Get all SR achievement ids in the same branch as the given achievement id; return an empty list if
-     * the achievement is not in a branch
-     *
-     * @param achievementId achievement id
-     * @return List of achievement ids
-     */
-    public ServiceResponse<List<Integer>> getAchievementInSameBranch(Integer achievementId) {
-        // Get SR branche id by achievement id, return an empty list if the achievement is not in a branch
-        Integer branchId = this.lambdaQuery()
-                .eq(SrBranch::getAchievementId, achievementId)
-                .oneOpt()
-                .map(SrBranch::getBranchId)
-                .orElse(null);
-        if (branchId == null) {
-            log.debug("No SR branch found for achievement id: {}", achievementId);
-            return ServiceResponse.success("No SR branch found for achievement id: " + achievementId, List.of());
-        }
-
-        // Get other achievement ids in the same branch
-        List<Integer> achievementIds = this.lambdaQuery()
-                .select(SrBranch::getAchievementId)
-                .eq(SrBranch::getBranchId, branchId)
-                .ne(SrBranch::getAchievementId, achievementId)
-                .list()
-                .stream()
-                .map(SrBranch::getAchievementId)
-                .toList();
-        log.debug("Get SR achievement ids in the same branch successfully.");
-        return ServiceResponse.success("Get SR achievement ids in the same branch successfully.", achievementIds);
-    }
-
     /**
      * Insert SR branches; should only be called by migration service
      *
@@ -77,10 +50,10 @@ public class SrBranchServiceImpl extends ServiceImpl<SrBranchMapper, SrBranch> i
         List<SrBranch> inserts = new ArrayList<>();
 
         for (Map<String, Object> branchMap : branchMapList) {
-            SrBranch srBranch = BeanUtil.toBean(branchMap, SrBranch.class);
+            SrBranch srBranch = MigrationRowBinders.SR_BRANCH.toBean(branchMap);
 
             // Check if all fields are filled
-            if (BeanUtil.hasNullField(srBranch)) {
+            if (MigrationRowBinders.SR_BRANCH.hasMissingField(srBranch)) {
                 log.warn("Invalid SR branch for insert: {}", branchMap);
                 throw new IllegalArgumentException("Invalid SR branch for insert.");
             }
@@ -105,8 +78,8 @@ public class SrBranchServiceImpl extends ServiceImpl<SrBranchMapper, SrBranch> i
      */
     @Transactional
     public ServiceResponse<?> updateBranchBatch(List<Map<String, Object>> branchMapList) {
-        List<SrBranch> updates = new ArrayList<>();
-
+        // Collect the ids of all target rows
+        List<Integer> oldIds = new ArrayList<>(branchMapList.size());
         for (Map<String, Object> branchMap : branchMapList) {
             // Get record id from the map
             Object recordIdObj = branchMap.get("record_id");
@@ -114,44 +87,47 @@ public class SrBranchServiceImpl extends ServiceImpl<SrBranchMapper, SrBranch> i
                 log.warn("Invalid SR branch for update: missing 'record_id' for lookup.");
                 throw new IllegalArgumentException("Invalid SR branch for update: missing 'record_id' for lookup.");
             }
-            Integer oldId = Integer.valueOf(recordIdObj.toString());
+            oldIds.add(Integer.valueOf(recordIdObj.toString()));
+        }
 
-            // Find the target branch
-            SrBranch targetBranch = this.getById(oldId);
+        // Load all targets with one query, keyed by their current id
+        Map<Integer, SrBranch> targets = new HashMap<>();
+        if (!oldIds.isEmpty()) {
+            for (SrBranch row : this.lambdaQuery().in(SrBranch::getAchievementId, new HashSet<>(oldIds)).list()) {
+                targets.put(row.getAchievementId(), row);
+            }
+        }
+
+        // Apply the rows in order in memory; a row may refer to an id changed by an earlier row
+        List<IdChange<Integer>> idChanges = new ArrayList<>();
+        Set<SrBranch> updates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < branchMapList.size(); i++) {
+            Integer oldId = oldIds.get(i);
+
+            // Find target SR branch
+            SrBranch targetBranch = targets.remove(oldId);
             if (targetBranch == null) {
                 log.warn("No SR branch found with id: {}", oldId);
                 throw new IllegalArgumentException("No SR branch found with id: " + oldId);
             }
 
-            // Update target branch
-            BeanUtil.fillBeanWithMap(branchMap, targetBranch,
-                    CopyOptions.create()
-                            .setIgnoreNullValue(true)
-                            .setIgnoreCase(true)
-                            .setIgnoreError(true)
-            );
+            // Update target SR branch
+            MigrationRowBinders.SR_BRANCH.fill(branchMapList.get(i), targetBranch);
 
             // Handle the situation that id is changed
             Integer newId = targetBranch.getAchievementId();
             if (!oldId.equals(newId)) {
-                UpdateWrapper<SrBranch> updateWrapper = new UpdateWrapper<>();
-                updateWrapper.eq("achievement_id", oldId);
-                updateWrapper.set("achievement_id", newId);
-                boolean success = this.update(targetBranch, updateWrapper);
-                if (!success) {
-                    log.warn("Failed to update SR branch for id: {}", oldId);
-                    throw new RuntimeException("Failed to update SR branch for id: " + oldId);
-                }
-            } else {
-                // Save result to list
-                updates.add(targetBranch);
+                idChanges.add(new IdChange<>(oldId, newId));
             }
+            targets.put(newId, targetBranch);
+            updates.add(targetBranch);
         }
 
-        // Save updates results to the database
-        if (!updates.isEmpty()) {
-            this.updateBatchById(updates);
-        }
+        // Save to the database in two JDBC batches: id changes in row order, then the final state of every row
+        BatchUpdateUtils.updateIds(getSqlSessionFactory(), SrBranch.class, SrBranchMapper.class,
+                "achievement_id", idChanges);
+        BatchUpdateUtils.updateByColumn(getSqlSessionFactory(), SrBranch.class, SrBranchMapper.class,
+                "achievement_id", SrBranch::getAchievementId, updates);
 
         log.debug("Update SR branches batch successfully.");
         return ServiceResponse.success("Update SR branches batch successfully.");
@@ -182,7 +158,7 @@ public class SrBranchServiceImpl extends ServiceImpl<SrBranchMapper, SrBranch> i
         }
 
         // Delete records
-        boolean success = this.removeByIds(branchIds);
+        boolean success = this.lambdaUpdate().in(SrBranch::getAchievementId, branchIds).remove();
         if (success) {
             log.debug("Delete SR branch batch successfully.");
             return ServiceResponse.success("Delete SR branch batch successfully.");
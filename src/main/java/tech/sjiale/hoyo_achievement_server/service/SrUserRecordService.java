@@ -1,13 +1,39 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import tech.sjiale.hoyo_achievement_server.dto.CompactRecords;
+import tech.sjiale.hoyo_achievement_server.dto.ExportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ImportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ImportReport;
+import tech.sjiale.hoyo_achievement_server.dto.ProgressSummary;
+import tech.sjiale.hoyo_achievement_server.dto.RecordChanges;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordItem;
 import tech.sjiale.hoyo_achievement_server.entity.SrUserRecord;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface SrUserRecordService extends IService<SrUserRecord> {
     ServiceResponse<List<SrUserRecord>> getAllRecordByUUID(String uuid);
 
+    ServiceResponse<CompactRecords> getCompactRecordByUUID(String uuid);
+
+    ServiceResponse<RecordChanges<SrUserRecord>> getRecordChangesByUUID(String uuid, long since);
+
+    ServiceResponse<ImportReport> importRecords(String uuid, ImportFormat format, InputStream in);
+
+    ServiceResponse<Long> exportRecords(String uuid, ExportFormat format, OutputStream out) throws IOException;
+
+    ServiceResponse<Long> exportAllRecords(ExportFormat format, OutputStream out) throws IOException;
+
+    ServiceResponse<ProgressSummary> getSummaryByUUID(String uuid);
+
+    ServiceResponse<?> recomputeSummaries();
+
     ServiceResponse<?> updateRecordById(String uuid, Integer achievementId, Integer completeStatus);
+
+    ServiceResponse<?> updateRecordBatch(String uuid, List<UpdateRecordItem> items);
 }
@@ -3,8 +3,8 @@ package tech.sjiale.hoyo_achievement_server.service;
 import cn.dev33.satoken.stp.StpInterface;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import tech.sjiale.hoyo_achievement_server.entity.User;
-import tech.sjiale.hoyo_achievement_server.mapper.UserMapper;
+import tech.sjiale.hoyo_achievement_server.dto.AuthContext;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,7 +13,7 @@ import java.util.List;
 public class StpInterfaceImpl implements StpInterface {
 
     @Autowired
-    private UserMapper userMapper;
+    private AuthContextService authContextService;
 
 
     @Override
@@ -26,12 +26,12 @@ public class StpInterfaceImpl implements StpInterface {
         // Get user ID
         Long userId = Long.valueOf(o.toString());
 
-        User user = userMapper.selectById(userId);
+        ServiceResponse<AuthContext> response = authContextService.getAuthContext(userId);
 
         // Add the user's role to the list
         List<String> list = new ArrayList<>();
-        if (user != null && user.getRole() != null) {
-            list.add(user.getRole().name());
+        if (response.success() && response.data().role() != null) {
+            list.add(response.data().role().name());
         }
         return list;
     }
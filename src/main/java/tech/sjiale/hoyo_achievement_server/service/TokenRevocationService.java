@@ -0,0 +1,9 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+public interface TokenRevocationService {
+    void revokeToken(String tokenId, Long expireAt);
+
+    void revokeUser(Long userId);
+
+    boolean isRevoked(String tokenId, Long userId, long issuedAt);
+}
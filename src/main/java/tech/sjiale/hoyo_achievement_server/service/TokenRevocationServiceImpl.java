@@ -0,0 +1,144 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import tech.sjiale.hoyo_achievement_server.entity.TokenRevocation;
+import tech.sjiale.hoyo_achievement_server.mapper.TokenRevocationMapper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked signed tokens. Checks only read two in-memory maps; every revocation is also written to token_revocation,
+ * and each node polls the rows added since its last poll, so a logout on one node takes effect on the others within
+ * the poll interval. Entries are dropped once the tokens they cover have expired.
+ */
+@Slf4j
+@Service("tokenRevocationService")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.satoken.mode", havingValue = "stateless")
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final String TOKEN_PREFIX = "token:";
+    private static final String USER_PREFIX = "user:";
+    // Rows are read again for this long after a poll, for commits that land late and clock skew between nodes
+    private static final long POLL_OVERLAP_MS = 30_000;
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final TokenRevocationMapper tokenRevocationMapper;
+
+    // Longest token lifetime in seconds, -1 means forever
+    @Value("${sa-token.timeout:2592000}")
+    private long tokenTimeout;
+
+    // Token id -> expire time, Long.MAX_VALUE never expires
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // User id -> tokens issued at or before this time are revoked
+    private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+    // User id -> expire time of the entry
+    private final Map<Long, Long> revokedUserExpires = new ConcurrentHashMap<>();
+    private volatile long lastPoll = 0;
+
+    /**
+     * Load all revocations that are still in effect
+     */
+    @PostConstruct
+    private void load() {
+        poll();
+    }
+
+    /**
+     * Revoke one token
+     *
+     * @param tokenId  token id
+     * @param expireAt expire time of the token in epoch millis, null if it never expires
+     */
+    public void revokeToken(String tokenId, Long expireAt) {
+        long now = System.currentTimeMillis();
+        revokedTokens.put(tokenId, expireAt == null ? Long.MAX_VALUE : expireAt);
+        tokenRevocationMapper.upsert(new TokenRevocation(TOKEN_PREFIX + tokenId, now, expireAt));
+        log.debug("Revoke token {}.", tokenId);
+    }
+
+    /**
+     * Revoke every token issued to a user until now
+     *
+     * @param userId user id
+     */
+    public void revokeUser(Long userId) {
+        long now = System.currentTimeMillis();
+        Long expireAt = tokenTimeout < 0 ? null : now + tokenTimeout * 1000;
+        addUser(userId, now, expireAt);
+        tokenRevocationMapper.upsert(new TokenRevocation(USER_PREFIX + userId, now, expireAt));
+        log.debug("Revoke all tokens of user {}.", userId);
+    }
+
+    /**
+     * Check if a token is revoked, by itself or with all tokens of its user
+     *
+     * @param tokenId  token id
+     * @param userId   user id
+     * @param issuedAt issue time of the token in epoch millis
+     * @return true if revoked
+     */
+    public boolean isRevoked(String tokenId, Long userId, long issuedAt) {
+        if (tokenId != null && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        Long revokedAt = revokedUsers.get(userId);
+        return revokedAt != null && issuedAt <= revokedAt;
+    }
+
+    /**
+     * Read the revocations other nodes added since the last poll, and forget expired ones
+     */
+    @Scheduled(fixedDelayString = "${app.satoken.revocation-poll-ms:2000}",
+            initialDelayString = "${app.satoken.revocation-poll-ms:2000}")
+    public void poll() {
+        long now = System.currentTimeMillis();
+        long since = lastPoll == 0 ? 0 : lastPoll - POLL_OVERLAP_MS;
+        List<TokenRevocation> rows = tokenRevocationMapper.selectSince(since, now);
+        lastPoll = now;
+
+        for (TokenRevocation row : rows) {
+            String key = row.getRevocationKey();
+            if (key.startsWith(TOKEN_PREFIX)) {
+                revokedTokens.put(key.substring(TOKEN_PREFIX.length()),
+                        row.getExpireAt() == null ? Long.MAX_VALUE : row.getExpireAt());
+            } else if (key.startsWith(USER_PREFIX)) {
+                addUser(Long.valueOf(key.substring(USER_PREFIX.length())), row.getRevokedAt(), row.getExpireAt());
+            }
+        }
+
+        revokedTokens.values().removeIf(expireAt -> expireAt <= now);
+        revokedUserExpires.forEach((userId, expireAt) -> {
+            if (expireAt <= now && revokedUserExpires.remove(userId, expireAt)) {
+                revokedUsers.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * Delete expired rows in small batches
+     */
+    @Scheduled(fixedDelayString = "${app.satoken.sweep-interval-ms:600000}",
+            initialDelayString = "${app.satoken.sweep-interval-ms:600000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        int deleted;
+        do {
+            deleted = tokenRevocationMapper.deleteExpired(now, SWEEP_BATCH_SIZE);
+        } while (deleted == SWEEP_BATCH_SIZE);
+    }
+
+    private void addUser(Long userId, long revokedAt, Long expireAt) {
+        revokedUsers.merge(userId, revokedAt, Math::max);
+        revokedUserExpires.merge(userId, expireAt == null ? Long.MAX_VALUE : expireAt, Math::max);
+    }
+}
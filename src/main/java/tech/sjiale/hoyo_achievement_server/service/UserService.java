@@ -22,6 +22,8 @@ public interface UserService extends IService<User> {
 
     ServiceResponse<?> updatePassword(Long id, String newPassword);
 
+    ServiceResponse<?> rehashPassword(Long id, String currentHash, String rawPassword);
+
     ServiceResponse<?> updateUserStatus(Long id, UserStatus status);
 
     ServiceResponse<?> updateUserRole(Long id, UserRole role);
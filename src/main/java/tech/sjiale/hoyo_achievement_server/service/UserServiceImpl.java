@@ -1,12 +1,14 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
+import cn.dev33.satoken.stp.StpUtil;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.dto.user_request.UserExposeDto;
 import tech.sjiale.hoyo_achievement_server.entity.Account;
@@ -23,6 +25,8 @@ import java.util.List;
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
     private final AccountService accountService;
+    private final AuthContextService authContextService;
+    private final PasswordService passwordService;
 
     /**
      * Get user by id
@@ -90,8 +94,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User user = new User();
         user.setUsername(username);
 
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        String hashedPassword = passwordEncoder.encode(password);
+        String hashedPassword = passwordService.encode(password);
         user.setPassword(hashedPassword);
 
         user.setRole(UserRole.USER);
@@ -145,8 +148,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
      */
     @Transactional
     public ServiceResponse<?> updatePassword(Long id, String newPassword) {
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordService.encode(newPassword);
 
         // Update password
         boolean updated = this.lambdaUpdate()
@@ -159,6 +161,36 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return ServiceResponse.success("Update password successfully: " + id);
     }
 
+    /**
+     * Replace a password hash made with another BCrypt strength; should only be called right after the password was
+     * verified. Skipped if the hash changed in the meantime or the password pool is busy. Not transactional: the
+     * update is a single conditional statement, and a transaction would hold a connection while the hash is computed.
+     *
+     * @param id          user id
+     * @param currentHash hash the password was verified against
+     * @param rawPassword verified password
+     * @return ServiceResponse
+     */
+    public ServiceResponse<?> rehashPassword(Long id, String currentHash, String rawPassword) {
+        String hashedPassword;
+        try {
+            hashedPassword = passwordService.encode(rawPassword);
+        } catch (ResponseStatusException e) {
+            return ServiceResponse.error("Password pool is busy, rehash skipped: " + id);
+        }
+
+        // Only replace the hash that was verified, a concurrent password change wins
+        boolean updated = this.lambdaUpdate()
+                .eq(User::getId, id)
+                .eq(User::getPassword, currentHash)
+                .set(User::getPassword, hashedPassword)
+                .update();
+        if (!updated) {
+            return ServiceResponse.error("Password changed before rehash: " + id);
+        }
+        return ServiceResponse.success("Rehash password successfully: " + id);
+    }
+
     /**
      * Update user status, cannot disable a root account; should only be called by admin and root
      *
@@ -187,9 +219,37 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (!updated) {
             throw new RuntimeException("Update user status failed: " + id);
         }
+        authContextService.invalidateUser(id);
+
+        // Once committed, a disabled user is denied on this node and kicked out of every login
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyStatus(id, status);
+                }
+            });
+        } else {
+            applyStatus(id, status);
+        }
         return ServiceResponse.success("Update user status successfully: " + id);
     }
 
+    /**
+     * Apply a committed status change to the logins of a user
+     *
+     * @param id     user id
+     * @param status new status
+     */
+    private void applyStatus(Long id, UserStatus status) {
+        if (status == UserStatus.DISABLED) {
+            authContextService.denyUser(id);
+            StpUtil.kickout(id);
+        } else {
+            authContextService.allowUser(id);
+        }
+    }
+
     /**
      * Update a non-root user role to admin or normal user;
      * Should only be called by root;
@@ -232,6 +292,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (!updated) {
             throw new RuntimeException("Update user role failed: " + id);
         }
+        authContextService.invalidateUser(id);
         return ServiceResponse.success("Update user role successfully: " + id);
     }
 
@@ -264,6 +325,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         if (!removed) {
             throw new RuntimeException("Delete user failed: " + id);
         }
+        authContextService.invalidateUser(id);
         return ServiceResponse.success("Delete user successfully: " + id);
     }
 
@@ -307,8 +369,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User root = new User();
         root.setUsername(username);
 
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        String hashedPassword = passwordEncoder.encode(password);
+        String hashedPassword = passwordService.encode(password);
         root.setPassword(hashedPassword);
 
         root.setRole(UserRole.ROOT);
@@ -1,19 +1,24 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
-import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.bean.copier.CopyOptions;
-import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tech.sjiale.hoyo_achievement_server.dto.IdChange;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
 import tech.sjiale.hoyo_achievement_server.entity.ZzzAchievement;
 import tech.sjiale.hoyo_achievement_server.mapper.ZzzAchievementMapper;
+import tech.sjiale.hoyo_achievement_server.util.BatchUpdateUtils;
+import tech.sjiale.hoyo_achievement_server.util.MigrationRowBinders;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service("zzzAchievementService")
@@ -43,7 +48,10 @@ public class ZzzAchievementServiceImpl extends ServiceImpl<ZzzAchievementMapper,
      * @return ServiceResponse with a list of ZzzAchievement
      */
     public ServiceResponse<List<ZzzAchievement>> getAllAchievements() {
-        return ServiceResponse.success("Get all ZZZ achievements successfully.", this.list());
+        List<ZzzAchievement> achievements = this.lambdaQuery()
+                .orderByAsc(ZzzAchievement::getAchievementId)
+                .list();
+        return ServiceResponse.success("Get all ZZZ achievements successfully.", achievements);
     }
 
     /**
@@ -57,10 +65,10 @@ public class ZzzAchievementServiceImpl extends ServiceImpl<ZzzAchievementMapper,
         List<ZzzAchievement> inserts = new ArrayList<>();
 
         for (Map<String, Object> achievementMap : achievementMapList) {
-            ZzzAchievement zzzAchievement = BeanUtil.toBean(achievementMap, ZzzAchievement.class);
+            ZzzAchievement zzzAchievement = MigrationRowBinders.ZZZ_ACHIEVEMENT.toBean(achievementMap);
 
             // Check if all fields are filled
-            if (BeanUtil.hasNullField(zzzAchievement)) {
+            if (MigrationRowBinders.ZZZ_ACHIEVEMENT.hasMissingField(zzzAchievement)) {
                 log.warn("Invalid ZZZ achievement for insert: {}", achievementMap);
                 return ServiceResponse.error("Invalid ZZZ achievement for insert.");
             }
@@ -85,8 +93,8 @@ public class ZzzAchievementServiceImpl extends ServiceImpl<ZzzAchievementMapper,
      */
     @Transactional
     public ServiceResponse<?> updateAchievementBatch(List<Map<String, Object>> achievementMapList) {
-        List<ZzzAchievement> updates = new ArrayList<>();
-
+        // Collect the ids of all target rows
+        List<Integer> oldIds = new ArrayList<>(achievementMapList.size());
         for (Map<String, Object> achievementMap : achievementMapList) {
             // Get record id from the map
             Object recordIdObj = achievementMap.get("record_id");
@@ -94,44 +102,47 @@ public class ZzzAchievementServiceImpl extends ServiceImpl<ZzzAchievementMapper,
                 log.warn("Invalid ZZZ achievement for update: missing 'record_id' for lookup.");
                 return ServiceResponse.error("Invalid ZZZ achievement for update: missing 'record_id' for lookup.");
             }
-            Integer oldId = Integer.valueOf(recordIdObj.toString());
+            oldIds.add(Integer.valueOf(recordIdObj.toString()));
+        }
 
-            // Find target achievement
-            ZzzAchievement targetAchievement = this.getById(oldId);
+        // Load all targets with one query, keyed by their current id
+        Map<Integer, ZzzAchievement> targets = new HashMap<>();
+        if (!oldIds.isEmpty()) {
+            for (ZzzAchievement row : this.lambdaQuery().in(ZzzAchievement::getAchievementId, new HashSet<>(oldIds)).list()) {
+                targets.put(row.getAchievementId(), row);
+            }
+        }
+
+        // Apply the rows in order in memory; a row may refer to an id changed by an earlier row
+        List<IdChange<Integer>> idChanges = new ArrayList<>();
+        Set<ZzzAchievement> updates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < achievementMapList.size(); i++) {
+            Integer oldId = oldIds.get(i);
+
+            // Find target ZZZ achievement
+            ZzzAchievement targetAchievement = targets.remove(oldId);
             if (targetAchievement == null) {
                 log.warn("No ZZZ achievement found with id: {}", oldId);
                 return ServiceResponse.error("No ZZZ achievement found with id: " + oldId);
             }
 
-            // Update target achievement
-            BeanUtil.fillBeanWithMap(achievementMap, targetAchievement,
-                    CopyOptions.create()
-                            .setIgnoreNullValue(true)
-                            .setIgnoreCase(true)
-                            .setIgnoreError(true)
-            );
+            // Update target ZZZ achievement
+            MigrationRowBinders.ZZZ_ACHIEVEMENT.fill(achievementMapList.get(i), targetAchievement);
 
             // Handle the situation that id is changed
             Integer newId = targetAchievement.getAchievementId();
             if (!oldId.equals(newId)) {
-                UpdateWrapper<ZzzAchievement> updateWrapper = new UpdateWrapper<>();
-                updateWrapper.eq("achievement_id", oldId);
-                updateWrapper.set("achievement_id", newId);
-                boolean success = this.update(targetAchievement, updateWrapper);
-                if (!success) {
-                    log.warn("Failed to update ZZZ achievement for id: {}", oldId);
-                    throw new RuntimeException("Failed to update ZZZ achievement for id: " + oldId);
-                }
-            } else {
-                // Save result to list
-                updates.add(targetAchievement);
+                idChanges.add(new IdChange<>(oldId, newId));
             }
+            targets.put(newId, targetAchievement);
+            updates.add(targetAchievement);
         }
 
-        // Save updates results to the database
-        if (!updates.isEmpty()) {
-            this.updateBatchById(updates);
-        }
+        // Save to the database in two JDBC batches: id changes in row order, then the final state of every row
+        BatchUpdateUtils.updateIds(getSqlSessionFactory(), ZzzAchievement.class, ZzzAchievementMapper.class,
+                "achievement_id", idChanges);
+        BatchUpdateUtils.updateByColumn(getSqlSessionFactory(), ZzzAchievement.class, ZzzAchievementMapper.class,
+                "achievement_id", ZzzAchievement::getAchievementId, updates);
 
         log.debug("Update ZZZ achievements batch successfully.");
         return ServiceResponse.success("Update ZZZ achievements batch successfully.");
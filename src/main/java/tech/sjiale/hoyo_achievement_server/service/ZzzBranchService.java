@@ -10,8 +10,6 @@ import java.util.Map;
 public interface ZzzBranchService extends IService<ZzzBranch> {
     ServiceResponse<List<ZzzBranch>> getAllBranches();
 
-    ServiceResponse<List<Integer>> getAchievementInSameBranch(Integer achievementId);
-
     // Data migration use
     ServiceResponse<?> insertBranchBatch(List<Map<String, Object>> branchMapList);
 
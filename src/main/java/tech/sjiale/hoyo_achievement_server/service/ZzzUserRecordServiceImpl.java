@@ -1,23 +1,78 @@
 package tech.sjiale.hoyo_achievement_server.service;
 
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cursor.Cursor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tech.sjiale.hoyo_achievement_server.dto.CatalogSnapshot;
+import tech.sjiale.hoyo_achievement_server.dto.CompactRecords;
+import tech.sjiale.hoyo_achievement_server.dto.ExportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ImportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ImportReport;
+import tech.sjiale.hoyo_achievement_server.dto.ProgressCount;
+import tech.sjiale.hoyo_achievement_server.dto.ProgressSummary;
+import tech.sjiale.hoyo_achievement_server.dto.RecordChanges;
 import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordItem;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAccountSummary;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzAchievement;
+import tech.sjiale.hoyo_achievement_server.entity.ZzzBranch;
 import tech.sjiale.hoyo_achievement_server.entity.ZzzUserRecord;
+import tech.sjiale.hoyo_achievement_server.entity.nume.GameType;
+import tech.sjiale.hoyo_achievement_server.mapper.ZzzAccountSummaryMapper;
 import tech.sjiale.hoyo_achievement_server.mapper.ZzzUserRecordMapper;
+import tech.sjiale.hoyo_achievement_server.util.CompactRecordPacker;
+import tech.sjiale.hoyo_achievement_server.util.RecordExportWriter;
+import tech.sjiale.hoyo_achievement_server.util.RecordImportPlan;
+import tech.sjiale.hoyo_achievement_server.util.RecordImportReader;
+import tech.sjiale.hoyo_achievement_server.util.RequestTiming;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Slf4j
 @Service("zzzUserRecordService")
 @RequiredArgsConstructor
 public class ZzzUserRecordServiceImpl extends ServiceImpl<ZzzUserRecordMapper, ZzzUserRecord> implements ZzzUserRecordService {
 
-    private final ZzzAchievementService zzzAchievementService;
-    private final ZzzBranchService zzzBranchService;
+    private final AccountService accountService;
+    private final CatalogService catalogService;
+    private final ZzzAccountSummaryMapper zzzAccountSummaryMapper;
+    private final RarityService rarityService;
+
+    @Autowired
+    @Lazy
+    private ZzzUserRecordService self;
+
+    // Rows per multi-row upsert statement, keeps each statement well below max_allowed_packet
+    private static final int UPSERT_CHUNK_SIZE = 500;
+
+    // Achievements per transaction of an import
+    private static final int IMPORT_CHUNK_SIZE = 500;
+
+    // Rejected rows listed in an import report
+    private static final int MAX_LISTED_REJECTS = 100;
+
+    // Columns of a record export
+    private static final List<String> EXPORT_COLUMNS = List.of("account_uuid", "achievement_id", "class_id", "name",
+            "game_version", "reward_level", "complete", "seq");
+
+    // Dimensions of the account summary table
+    private static final String DIMENSION_ALL = "all";
+    private static final String DIMENSION_CLASS = "class";
+    private static final String DIMENSION_VERSION = "version";
 
     /**
      * Get all ZZZ achievements records by account uuid
@@ -33,6 +88,242 @@ public class ZzzUserRecordServiceImpl extends ServiceImpl<ZzzUserRecordMapper, Z
         return ServiceResponse.success("Get all ZZZ achievements records by uuid successfully: " + uuid, list);
     }
 
+    /**
+     * Get all ZZZ achievements records of an account packed in catalog order, 2 bits per achievement
+     *
+     * @param uuid Account uuid
+     * @return ServiceResponse with CompactRecords
+     */
+    public ServiceResponse<CompactRecords> getCompactRecordByUUID(String uuid) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
+
+        // Only the two columns that are packed
+        List<ZzzUserRecord> list = this.lambdaQuery()
+                .select(ZzzUserRecord::getAchievementId, ZzzUserRecord::getComplete)
+                .eq(ZzzUserRecord::getAccountUuid, uuid)
+                .list();
+        if (list == null) {
+            return ServiceResponse.error("Failed to get ZZZ achievements records for uuid: " + uuid);
+        }
+
+        // Missing rows stay incomplete; rows of achievements removed from the catalog are dropped
+        CompactRecordPacker packer = new CompactRecordPacker(catalog.achievementIds());
+        for (ZzzUserRecord record : list) {
+            if (record.getAchievementId() == null || record.getComplete() == null) continue;
+            packer.set(record.getAchievementId(), record.getComplete());
+        }
+
+        CompactRecords compactRecords = new CompactRecords(catalog.id(), catalog.achievementIds().length,
+                packer.toBase64());
+        return ServiceResponse.success("Get compact ZZZ achievements records by uuid successfully: " + uuid,
+                compactRecords);
+    }
+
+    /**
+     * Get ZZZ achievements records of an account changed after a sequence number
+     *
+     * @param uuid  Account uuid
+     * @param since Sequence returned by the previous sync; 0 or less returns all records
+     * @return ServiceResponse with RecordChanges
+     */
+    public ServiceResponse<RecordChanges<ZzzUserRecord>> getRecordChangesByUUID(String uuid, long since) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+
+        // Read the sequence before the records; a write in between is returned again next time rather than missed
+        ServiceResponse<Long> seqResponse = accountService.getRecordSeq(uuid);
+        if (!seqResponse.success()) {
+            return ServiceResponse.error(seqResponse.message());
+        }
+
+        List<ZzzUserRecord> list = this.lambdaQuery()
+                .eq(ZzzUserRecord::getAccountUuid, uuid)
+                .gt(since > 0, ZzzUserRecord::getSeq, since)
+                .list();
+        if (list == null) {
+            return ServiceResponse.error("Failed to get ZZZ achievements record changes for uuid: " + uuid);
+        }
+
+        RecordChanges<ZzzUserRecord> changes = new RecordChanges<>(seqResponse.data(),
+                catalogResponse.data().id(), list);
+        return ServiceResponse.success("Get ZZZ achievements record changes by uuid successfully: " + uuid, changes);
+    }
+
+    /**
+     * Import ZZZ achievement records of an account from a file. The file is parsed as a stream and checked against
+     * the catalog in memory; branches are resolved before writing, and the updates are applied in chunks of one
+     * transaction each. A failed chunk stops the import, chunks before it stay applied.
+     *
+     * @param uuid   Account uuid
+     * @param format file format
+     * @param in     file content, left open
+     * @return ServiceResponse with ImportReport
+     */
+    public ServiceResponse<ImportReport> importRecords(String uuid, ImportFormat format, InputStream in) {
+        long start = System.nanoTime();
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
+
+        RecordImportPlan plan = new RecordImportPlan(catalog::containsAchievement, catalog.branchIndex(),
+                MAX_LISTED_REJECTS);
+        try {
+            RecordImportReader.read(format, in, plan::add);
+        } catch (IOException e) {
+            return ServiceResponse.error("Failed to read ZZZ import file: " + e.getMessage());
+        }
+        List<UpdateRecordItem> items = plan.resolve();
+
+        for (int from = 0; from < items.size(); from += IMPORT_CHUNK_SIZE) {
+            ServiceResponse<?> response = self.updateRecordBatch(uuid,
+                    items.subList(from, Math.min(from + IMPORT_CHUNK_SIZE, items.size())));
+            if (!response.success()) {
+                return ServiceResponse.error("Failed to import ZZZ records after " + from + " rows: "
+                        + response.message());
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = Math.round(plan.rows() * 1000.0 / Math.max(elapsedMs, 1) * 10) / 10.0;
+        ImportReport report = new ImportReport(plan.rows(), items.size(), plan.rejected(), plan.rejects(),
+                elapsedMs, rowsPerSecond);
+        log.info("Imported ZZZ records of {}: {} rows, {} applied, {} rejected in {} ms.", uuid, plan.rows(),
+                items.size(), plan.rejected(), elapsedMs);
+        return ServiceResponse.success("Import ZZZ achievement records successfully.", report);
+    }
+
+    /**
+     * Write the ZZZ achievement records of an account to an output stream, joined with the catalog for names. The
+     * rows are read before writing, so no connection is held while a slow client reads the output.
+     *
+     * @param uuid   Account uuid
+     * @param format output format
+     * @param out    output stream, left open
+     * @return ServiceResponse with the number of rows written
+     * @throws IOException if the output can't be written, e.g. the client went away
+     */
+    public ServiceResponse<Long> exportRecords(String uuid, ExportFormat format, OutputStream out) throws IOException {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
+
+        List<ZzzUserRecord> list = this.lambdaQuery()
+                .select(ZzzUserRecord::getAccountUuid, ZzzUserRecord::getAchievementId, ZzzUserRecord::getComplete,
+                        ZzzUserRecord::getSeq)
+                .eq(ZzzUserRecord::getAccountUuid, uuid)
+                .orderByAsc(ZzzUserRecord::getAchievementId)
+                .list();
+        if (list == null) {
+            return ServiceResponse.error("Failed to get ZZZ achievements records for uuid: " + uuid);
+        }
+
+        RecordExportWriter writer = new RecordExportWriter(format, EXPORT_COLUMNS, out);
+        for (ZzzUserRecord record : list) {
+            writeExportRow(writer, catalog, record);
+        }
+        writer.flush();
+        return ServiceResponse.success("Export " + list.size() + " ZZZ achievement records of " + uuid
+                + " successfully.", (long) list.size());
+    }
+
+    /**
+     * Stream the ZZZ achievement records of all accounts to an output stream, joined with the catalog for names;
+     * rows are read from a cursor and written one at a time, so memory use doesn't grow with the number of rows.
+     * The cursor holds a connection until the output is written; should only be called by admin or root.
+     *
+     * @param format output format
+     * @param out    output stream, left open
+     * @return ServiceResponse with the number of rows written
+     * @throws IOException if the output can't be written, e.g. the client went away
+     */
+    @Transactional(readOnly = true)
+    public ServiceResponse<Long> exportAllRecords(ExportFormat format, OutputStream out) throws IOException {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
+
+        RecordExportWriter writer = new RecordExportWriter(format, EXPORT_COLUMNS, out);
+        long rows = 0;
+        try (Cursor<ZzzUserRecord> cursor = this.baseMapper.cursorAll()) {
+            for (ZzzUserRecord record : cursor) {
+                writeExportRow(writer, catalog, record);
+                rows++;
+            }
+        }
+        writer.flush();
+        return ServiceResponse.success("Export " + rows + " ZZZ achievement records successfully.", rows);
+    }
+
+    /**
+     * Get the ZZZ progress summary of an account; completed counts come from the summary table and totals from the
+     * catalog, so no record rows are read
+     *
+     * @param uuid Account uuid
+     * @return ServiceResponse with ProgressSummary
+     */
+    public ServiceResponse<ProgressSummary> getSummaryByUUID(String uuid) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
+
+        List<ZzzAccountSummary> rows = zzzAccountSummaryMapper.selectList(
+                new LambdaQueryWrapper<ZzzAccountSummary>().eq(ZzzAccountSummary::getAccountUuid, uuid));
+        if (rows == null) {
+            return ServiceResponse.error("Failed to get ZZZ achievements summary for uuid: " + uuid);
+        }
+        Map<String, ZzzAccountSummary> earned = new HashMap<>();
+        for (ZzzAccountSummary row : rows) {
+            earned.put(row.getDimension() + ":" + row.getDimKey(), row);
+        }
+
+        // Totals of every group in the catalog, so groups the account hasn't started are listed too
+        long[] overallTotal = new long[2];
+        Map<String, long[]> classTotals = new TreeMap<>();
+        Map<String, long[]> versionTotals = new TreeMap<>();
+        for (ZzzAchievement achievement : catalog.achievements()) {
+            long reward = rewardOf(achievement);
+            for (long[] total : List.of(overallTotal,
+                    classTotals.computeIfAbsent(String.valueOf(achievement.getClassId()), k -> new long[2]),
+                    versionTotals.computeIfAbsent(achievement.getGameVersion(), k -> new long[2]))) {
+                total[0]++;
+                total[1] += reward;
+            }
+        }
+
+        ProgressSummary summary = new ProgressSummary(catalog.id(),
+                toProgressCount(earned.get(DIMENSION_ALL + ":"), overallTotal),
+                toProgressCounts(earned, DIMENSION_CLASS, classTotals),
+                toProgressCounts(earned, DIMENSION_VERSION, versionTotals));
+        return ServiceResponse.success("Get ZZZ achievements summary by uuid successfully: " + uuid, summary);
+    }
+
+    /**
+     * Rebuild the ZZZ summaries of all accounts from their records; used after a migration changed the catalog
+     *
+     * @return ServiceResponse
+     */
+    @Transactional
+    public ServiceResponse<?> recomputeSummaries() {
+        zzzAccountSummaryMapper.deleteAll();
+        int rows = zzzAccountSummaryMapper.rebuildAll();
+        log.info("Recomputed ZZZ account summaries, {} rows written.", rows);
+        return ServiceResponse.success("Recompute ZZZ account summaries successfully.");
+    }
+
     /**
      * Update ZZZ achievement record by achievement id and account uuid
      *
@@ -43,52 +334,186 @@ public class ZzzUserRecordServiceImpl extends ServiceImpl<ZzzUserRecordMapper, Z
      */
     @Transactional
     public ServiceResponse<?> updateRecordById(String uuid, Integer achievementId, Integer completeStatus) {
-        // Check if achievement exists
-        if (!zzzAchievementService.getAchievementById(achievementId).success()) {
-            return ServiceResponse.error("ZZZ Achievement id doesn't exist: " + achievementId);
+        UpdateRecordItem item = new UpdateRecordItem();
+        item.setAchievementId(achievementId);
+        item.setCompleteStatus(completeStatus);
+
+        // Same path as a batch of one; the record and its branch siblings are written in one statement
+        ServiceResponse<?> response = updateRecordBatch(uuid, List.of(item));
+        if (!response.success()) {
+            return response;
         }
+        return ServiceResponse.success("Update ZZZ achievement record successfully.");
+    }
 
-        // Update current achievement record
-        updateRecord(uuid, achievementId, completeStatus);
+    /**
+     * Update a batch of ZZZ achievement records of one account; branch siblings are resolved in memory against the
+     * catalog and all rows are written with multi-row upserts. Items are applied in order, so a later item wins over
+     * an earlier one, the same as calling updateRecordById for each item.
+     *
+     * @param uuid  Account uuid
+     * @param items List of achievement id and complete status
+     * @return ServiceResponse
+     */
+    @Transactional
+    public ServiceResponse<?> updateRecordBatch(String uuid, List<UpdateRecordItem> items) {
+        ServiceResponse<CatalogSnapshot<ZzzAchievement, ZzzBranch>> catalogResponse = catalogService.getZzzCatalog();
+        if (!catalogResponse.success()) {
+            return ServiceResponse.error(catalogResponse.message());
+        }
+        CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog = catalogResponse.data();
 
-        // Update achievements in same branch
-        ServiceResponse<List<Integer>> response = zzzBranchService.getAchievementInSameBranch(achievementId);
-        if (!response.success()) {
-            throw new RuntimeException("Failed to get ZZZ achievements in same branch.");
+        // Resolve the final status of every touched achievement
+        Map<Integer, Integer> changes = new LinkedHashMap<>();
+        for (UpdateRecordItem item : items) {
+            Integer achievementId = item.getAchievementId();
+            if (achievementId == null || !catalog.containsAchievement(achievementId)) {
+                return ServiceResponse.error("ZZZ Achievement id doesn't exist: " + achievementId);
+            }
+            changes.put(achievementId, item.getCompleteStatus());
+
+            Integer branchStatus = item.getCompleteStatus() == 1 ? 2 : 0;
+            for (int sibling : catalog.branchIndex().siblingsOf(achievementId)) {
+                changes.put(sibling, branchStatus);
+            }
+        }
+
+        // Take the next change sequence of the account; this locks the account row until commit
+        ServiceResponse<Long> seqResponse;
+        try (RequestTiming.Span span = RequestTiming.span("seq")) {
+            seqResponse = accountService.nextRecordSeq(uuid);
+        }
+        if (!seqResponse.success()) {
+            return ServiceResponse.error(seqResponse.message());
         }
-        if (!response.data().isEmpty()) {
-            Integer branchStatus = completeStatus == 1 ? 2 : 0;
-            for (Integer achievement : response.data()) {
-                updateRecord(uuid, achievement, branchStatus);
+
+        // Statuses before this update, read under the account lock so the summary deltas are exact
+        Map<Integer, Integer> previous = new HashMap<>();
+        for (ZzzUserRecord record : this.lambdaQuery()
+                .select(ZzzUserRecord::getAchievementId, ZzzUserRecord::getComplete)
+                .eq(ZzzUserRecord::getAccountUuid, uuid)
+                .in(ZzzUserRecord::getAchievementId, changes.keySet())
+                .list()) {
+            previous.put(record.getAchievementId(), record.getComplete());
+        }
+
+        // Write all rows
+        List<ZzzUserRecord> records = new ArrayList<>(changes.size());
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            ZzzUserRecord record = new ZzzUserRecord();
+            record.setAccountUuid(uuid);
+            record.setAchievementId(change.getKey());
+            record.setComplete(change.getValue());
+            record.setSeq(seqResponse.data());
+            records.add(record);
+        }
+        try (RequestTiming.Span span = RequestTiming.span("upsert")) {
+            for (int from = 0; from < records.size(); from += UPSERT_CHUNK_SIZE) {
+                this.baseMapper.upsertBatch(records.subList(from, Math.min(from + UPSERT_CHUNK_SIZE, records.size())));
             }
         }
-        return ServiceResponse.success("Update ZZZ achievement record successfully.");
+
+        // Apply the changes of completed counts to the summary in the same transaction, and to the rarity counters
+        // once it commits
+        Map<Integer, Integer> completions = completionChanges(previous, changes);
+        List<ZzzAccountSummary> deltas = summaryDeltas(uuid, catalog, completions);
+        if (!deltas.isEmpty()) {
+            zzzAccountSummaryMapper.addDeltas(deltas);
+        }
+        rarityService.recordCompletions(GameType.ZZZ, completions);
+
+        log.debug("Update ZZZ achievement record batch successfully, {} rows written.", records.size());
+        return ServiceResponse.success("Update ZZZ achievement record batch successfully.");
     }
 
     /**
-     * Update ZZZ achievement record by achievement id and account uuid; if the record doesn't exist, insert a new one
+     * Find the achievements whose completed state flips; branch-locked and incomplete both count as not completed
      *
-     * @param uuid           Account uuid
-     * @param achievementId  ZZZ achievement id
-     * @param completeStatus Complete status
+     * @param previous statuses before the update, missing if there was no row
+     * @param changes  statuses after the update
+     * @return +1 for each achievement that becomes completed, -1 for each that stops being completed
      */
-    private void updateRecord(String uuid, Integer achievementId, Integer completeStatus) {
-        ZzzUserRecord record = this.lambdaQuery()
-                .eq(ZzzUserRecord::getAccountUuid, uuid)
-                .eq(ZzzUserRecord::getAchievementId, achievementId)
-                .one();
-        if (record != null) {
-            this.lambdaUpdate()
-                    .eq(ZzzUserRecord::getAccountUuid, uuid)
-                    .eq(ZzzUserRecord::getAchievementId, achievementId)
-                    .set(ZzzUserRecord::getComplete, completeStatus)
-                    .update();
+    private static Map<Integer, Integer> completionChanges(Map<Integer, Integer> previous,
+                                                           Map<Integer, Integer> changes) {
+        Map<Integer, Integer> completions = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> change : changes.entrySet()) {
+            int before = Integer.valueOf(1).equals(previous.get(change.getKey())) ? 1 : 0;
+            int after = Integer.valueOf(1).equals(change.getValue()) ? 1 : 0;
+            if (before != after) {
+                completions.put(change.getKey(), after - before);
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * Compute the summary rows to add for a set of completion changes
+     *
+     * @param uuid        Account uuid
+     * @param catalog     ZZZ catalog
+     * @param completions +1 or -1 per achievement
+     * @return summary rows holding deltas, zero rows left out
+     */
+    private List<ZzzAccountSummary> summaryDeltas(String uuid, CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog,
+                                                  Map<Integer, Integer> completions) {
+        Map<String, ZzzAccountSummary> deltas = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Integer> completion : completions.entrySet()) {
+            ZzzAchievement achievement = catalog.findAchievement(completion.getKey());
+            int count = completion.getValue();
+            long reward = count * rewardOf(achievement);
+            addDelta(deltas, uuid, DIMENSION_ALL, "", count, reward);
+            addDelta(deltas, uuid, DIMENSION_CLASS, String.valueOf(achievement.getClassId()), count, reward);
+            addDelta(deltas, uuid, DIMENSION_VERSION, achievement.getGameVersion(), count, reward);
+        }
+        deltas.values().removeIf(row -> row.getCompleted() == 0 && row.getReward() == 0);
+        return new ArrayList<>(deltas.values());
+    }
+
+    private static void addDelta(Map<String, ZzzAccountSummary> deltas, String uuid, String dimension, String key,
+                                 int count, long reward) {
+        ZzzAccountSummary row = deltas.computeIfAbsent(dimension + ":" + key,
+                k -> new ZzzAccountSummary(uuid, dimension, key, 0, 0L));
+        row.setCompleted(row.getCompleted() + count);
+        row.setReward(row.getReward() + reward);
+    }
+
+    private static long rewardOf(ZzzAchievement achievement) {
+        return achievement.getRewardLevel() == null ? 0 : achievement.getRewardLevel();
+    }
+
+    private static Map<String, ProgressCount> toProgressCounts(Map<String, ZzzAccountSummary> earned, String dimension,
+                                                               Map<String, long[]> totals) {
+        Map<String, ProgressCount> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            counts.put(total.getKey(), toProgressCount(earned.get(dimension + ":" + total.getKey()), total.getValue()));
+        }
+        return counts;
+    }
+
+    private static ProgressCount toProgressCount(ZzzAccountSummary row, long[] total) {
+        int completed = row == null ? 0 : row.getCompleted();
+        long reward = row == null ? 0 : row.getReward();
+        return new ProgressCount(completed, (int) total[0], reward, total[1]);
+    }
+
+    /**
+     * Write one record of an export; rows of achievements removed from the catalog are kept, without names
+     *
+     * @param writer  export writer
+     * @param catalog current catalog
+     * @param record  record
+     * @throws IOException if the output can't be written
+     */
+    private static void writeExportRow(RecordExportWriter writer, CatalogSnapshot<ZzzAchievement, ZzzBranch> catalog,
+                                       ZzzUserRecord record) throws IOException {
+        ZzzAchievement achievement = catalog.findAchievement(record.getAchievementId());
+        if (achievement == null) {
+            writer.writeRow(record.getAccountUuid(), record.getAchievementId(), null, null, null, null,
+                    record.getComplete(), record.getSeq());
         } else {
-            ZzzUserRecord newRecord = new ZzzUserRecord();
-            newRecord.setAccountUuid(uuid);
-            newRecord.setAchievementId(achievementId);
-            newRecord.setComplete(completeStatus);
-            this.save(newRecord);
+            writer.writeRow(record.getAccountUuid(), record.getAchievementId(), achievement.getClassId(),
+                    achievement.getName(), achievement.getGameVersion(), achievement.getRewardLevel(),
+                    record.getComplete(), record.getSeq());
         }
     }
 }
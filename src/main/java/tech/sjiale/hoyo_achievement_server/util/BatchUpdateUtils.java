@@ -0,0 +1,78 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import com.baomidou.mybatisplus.core.batch.MybatisBatch;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.SqlSessionFactory;
+import tech.sjiale.hoyo_achievement_server.dto.IdChange;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+public class BatchUpdateUtils {
+
+    /**
+     * Change key columns in one JDBC batch. Statements run in list order, so chains and swaps through a free key
+     * behave the same as issuing them one by one. It will throw an exception if any row is not found.
+     *
+     * @param sqlSessionFactory session factory of the mapper
+     * @param entityClass       entity class
+     * @param mapperClass       mapper class of the entity
+     * @param idColumn          key column name
+     * @param changes           key changes in order
+     */
+    public static <T, K> void updateIds(SqlSessionFactory sqlSessionFactory, Class<T> entityClass,
+                                        Class<? extends BaseMapper<T>> mapperClass, String idColumn,
+                                        List<IdChange<K>> changes) {
+        if (changes.isEmpty()) return;
+
+        MybatisBatch.Method<T> method = new MybatisBatch.Method<>(mapperClass);
+        List<BatchResult> results = new MybatisBatch<>(sqlSessionFactory, changes, changes.size())
+                .execute(method.<IdChange<K>>update(change -> new UpdateWrapper<T>()
+                        .eq(idColumn, change.oldId())
+                        .set(idColumn, change.newId())));
+        checkUpdated(results, entityClass);
+    }
+
+    /**
+     * Write the full state of entities in one JDBC batch, matching rows by a column. Works for tables without a
+     * primary key mapping. It will throw an exception if any row is not found.
+     *
+     * @param sqlSessionFactory session factory of the mapper
+     * @param entityClass       entity class
+     * @param mapperClass       mapper class of the entity
+     * @param idColumn          column to match rows on
+     * @param idGetter          getter of the column value
+     * @param entities          entities to write
+     */
+    public static <T> void updateByColumn(SqlSessionFactory sqlSessionFactory, Class<T> entityClass,
+                                          Class<? extends BaseMapper<T>> mapperClass, String idColumn,
+                                          Function<T, ?> idGetter, Collection<T> entities) {
+        if (entities.isEmpty()) return;
+
+        MybatisBatch.Method<T> method = new MybatisBatch.Method<>(mapperClass);
+        List<BatchResult> results = new MybatisBatch<>(sqlSessionFactory, entities, entities.size())
+                .execute(method.<T>update(entity -> entity,
+                        entity -> new UpdateWrapper<T>().eq(idColumn, idGetter.apply(entity))));
+        checkUpdated(results, entityClass);
+    }
+
+    /**
+     * Check that every statement of a batch matched a row
+     *
+     * @param results     batch results
+     * @param entityClass entity class, for the error message
+     */
+    private static void checkUpdated(List<BatchResult> results, Class<?> entityClass) {
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches; only 0 means no row matched
+                if (count == 0) {
+                    throw new RuntimeException("Batch update matched no row for " + entityClass.getSimpleName());
+                }
+            }
+        }
+    }
+}
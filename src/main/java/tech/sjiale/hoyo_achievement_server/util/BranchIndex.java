@@ -0,0 +1,114 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable achievement branch index built from a branch table; all lookups are binary searches over primitive
+ * arrays, so no boxing or database access happens on the read path
+ */
+public final class BranchIndex {
+
+    private static final int[] NO_SIBLINGS = new int[0];
+
+    // Sorted achievement ids; the branch id and the sibling ids of each are kept at the same position
+    private final int[] achievementIds;
+    private final int[] branchIds;
+    private final int[][] siblings;
+
+    private BranchIndex(int[] achievementIds, int[] branchIds, int[][] siblings) {
+        this.achievementIds = achievementIds;
+        this.branchIds = branchIds;
+        this.siblings = siblings;
+    }
+
+    /**
+     * Build an index from branch rows
+     *
+     * @param rows          branch rows
+     * @param achievementId achievement id getter
+     * @param branchId      branch id getter
+     * @return BranchIndex
+     */
+    public static <T> BranchIndex of(List<T> rows, ToIntFunction<T> achievementId, ToIntFunction<T> branchId) {
+        int size = rows.size();
+
+        // Sort (achievement id, branch id) pairs packed into longs
+        long[] pairs = new long[size];
+        for (int i = 0; i < size; i++) {
+            T row = rows.get(i);
+            pairs[i] = ((long) achievementId.applyAsInt(row) << 32) | (branchId.applyAsInt(row) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(pairs);
+
+        int[] achievementIds = new int[size];
+        int[] branchIds = new int[size];
+        for (int i = 0; i < size; i++) {
+            achievementIds[i] = (int) (pairs[i] >> 32);
+            branchIds[i] = (int) pairs[i];
+        }
+
+        // Collect the members of each branch
+        Map<Integer, int[]> members = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            int[] current = members.getOrDefault(branchIds[i], NO_SIBLINGS);
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = achievementIds[i];
+            members.put(branchIds[i], extended);
+        }
+
+        // Precompute the siblings of each achievement, so lookups don't allocate
+        int[][] siblings = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int[] branchMembers = members.get(branchIds[i]);
+            int[] others = new int[branchMembers.length - 1];
+            int next = 0;
+            for (int member : branchMembers) {
+                if (member != achievementIds[i]) {
+                    others[next++] = member;
+                }
+            }
+            siblings[i] = others;
+        }
+
+        return new BranchIndex(achievementIds, branchIds, siblings);
+    }
+
+    /**
+     * Check if an achievement belongs to a branch
+     *
+     * @param achievementId achievement id
+     * @return true if in a branch
+     */
+    public boolean isInBranch(int achievementId) {
+        return Arrays.binarySearch(achievementIds, achievementId) >= 0;
+    }
+
+    /**
+     * Get the branch id of an achievement
+     *
+     * @param achievementId achievement id
+     * @return branch id; the achievement must be in a branch
+     */
+    public int branchOf(int achievementId) {
+        int position = Arrays.binarySearch(achievementIds, achievementId);
+        if (position < 0) {
+            throw new IllegalArgumentException("Achievement is not in a branch: " + achievementId);
+        }
+        return branchIds[position];
+    }
+
+    /**
+     * Get the other achievements in the same branch as the given one
+     *
+     * @param achievementId achievement id
+     * @return sibling achievement ids, empty if the achievement is not in a branch; shared, must not be modified
+     */
+    public int[] siblingsOf(int achievementId) {
+        int position = Arrays.binarySearch(achievementIds, achievementId);
+        return position < 0 ? NO_SIBLINGS : siblings[position];
+    }
+}
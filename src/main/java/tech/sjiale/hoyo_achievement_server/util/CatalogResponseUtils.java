@@ -0,0 +1,124 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import tech.sjiale.hoyo_achievement_server.dto.CatalogPayload;
+
+public class CatalogResponseUtils {
+
+    /**
+     * Build the response of a pre-serialized catalog payload; pick the gzip body if the client accepts it and
+     * return 304 if the client already holds the same content
+     *
+     * @param payload        pre-serialized payload
+     * @param acceptEncoding Accept-Encoding header, nullable
+     * @param ifNoneMatch    If-None-Match header, nullable
+     * @return ResponseEntity with the payload bytes, or an empty 304 response
+     */
+    public static ResponseEntity<byte[]> toResponse(CatalogPayload payload, String acceptEncoding, String ifNoneMatch) {
+        boolean useGzip = acceptsGzip(acceptEncoding);
+        String etag = useGzip ? payload.gzipETag() : payload.etag();
+
+        // Either representation of the same content is a match
+        if (matchesETag(ifNoneMatch, payload)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noCache());
+        if (useGzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return builder.body(payload.identity());
+    }
+
+    /**
+     * Check if the Accept-Encoding header allows gzip. An explicit gzip entry takes precedence over "*", and an
+     * entry with q=0 refuses the coding.
+     *
+     * @param acceptEncoding Accept-Encoding header, nullable
+     * @return true if gzip is accepted with a non-zero quality
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean isGzip = name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip");
+            if (!isGzip && !name.equals("*")) {
+                continue;
+            }
+
+            double quality = quality(parts);
+            if (isGzip) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else {
+                anyQuality = Math.max(anyQuality, quality);
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : anyQuality > 0;
+    }
+
+    /**
+     * Read the q parameter of one Accept-Encoding entry
+     *
+     * @param parts entry split by ";", the coding name first
+     * @return quality in [0, 1], 1 if absent, 0 if malformed
+     */
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 1 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q')) {
+                String value = param.substring(1).trim();
+                if (!value.startsWith("=")) {
+                    continue;
+                }
+                try {
+                    double quality = Double.parseDouble(value.substring(1).trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Check if the If-None-Match header matches either representation of the payload
+     *
+     * @param ifNoneMatch If-None-Match header, nullable
+     * @param payload     pre-serialized payload
+     * @return true if matched
+     */
+    private static boolean matchesETag(String ifNoneMatch, CatalogPayload payload) {
+        if (ifNoneMatch == null) return false;
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) return true;
+
+            // If-None-Match uses weak comparison
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(payload.etag()) || candidate.equals(payload.gzipETag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,46 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+public class CompactRecordPacker {
+
+    private final int[] catalogIds;
+    private final byte[] packed;
+
+    /**
+     * Create a packer for a catalog; every achievement starts as incomplete
+     *
+     * @param catalogIds sorted achievement ids of the catalog, positions are taken from this array
+     */
+    public CompactRecordPacker(int[] catalogIds) {
+        this.catalogIds = catalogIds;
+        this.packed = new byte[(catalogIds.length + 3) / 4];
+    }
+
+    /**
+     * Set the status of an achievement; ids not in the catalog are ignored
+     *
+     * @param achievementId achievement id
+     * @param status        complete status, 0 to 2
+     * @return true if the achievement is in the catalog
+     */
+    public boolean set(int achievementId, int status) {
+        int position = Arrays.binarySearch(catalogIds, achievementId);
+        if (position < 0 || status < 0 || status > 2) {
+            return false;
+        }
+        int shift = (position & 3) * 2;
+        packed[position >> 2] = (byte) ((packed[position >> 2] & ~(3 << shift)) | (status << shift));
+        return true;
+    }
+
+    /**
+     * Get the packed bytes as base64
+     *
+     * @return base64 string
+     */
+    public String toBase64() {
+        return Base64.getEncoder().encodeToString(packed);
+    }
+}
@@ -0,0 +1,70 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tech.sjiale.hoyo_achievement_server.dto.ExportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+public class ExportResponseUtils {
+
+    // Deflate buffer; rows are small, so a larger buffer mostly saves flushes
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes an export to a stream
+     */
+    @FunctionalInterface
+    public interface Exporter {
+        ServiceResponse<Long> export(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Build a streamed download; the body is written after the handler returns, on the MVC async executor, and is
+     * gzipped on the fly if the client accepts it
+     *
+     * @param fileName       file name without extension
+     * @param format         export format
+     * @param acceptEncoding Accept-Encoding header, nullable
+     * @param exporter       writes the rows
+     * @return ResponseEntity with a StreamingResponseBody
+     */
+    public static ResponseEntity<StreamingResponseBody> toResponse(String fileName, ExportFormat format,
+                                                                   String acceptEncoding, Exporter exporter) {
+        boolean useGzip = CatalogResponseUtils.acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> {
+            GZIPOutputStream gzip = useGzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+            ServiceResponse<Long> response = exporter.export(gzip != null ? gzip : out);
+            if (gzip != null) {
+                gzip.finish();
+            }
+            // The status is already sent, an error can only end the body early
+            if (!response.success()) {
+                log.error(response.message());
+            } else {
+                log.debug(response.message());
+            }
+        };
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(format.contentType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(fileName + "." + format.extension())
+                        .build()
+                        .toString())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (useGzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
+}
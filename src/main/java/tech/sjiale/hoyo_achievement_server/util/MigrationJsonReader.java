@@ -0,0 +1,200 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import tech.sjiale.hoyo_achievement_server.dto.MigrationHeader;
+import tech.sjiale.hoyo_achievement_server.dto.MigrationOperation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Streaming reader of migration files. Only one chunk of rows is held in memory at a time, so the heap used while
+ * importing doesn't grow with the file size. The caller owns the input stream and must close it.
+ */
+public class MigrationJsonReader {
+
+    // Thread-safe once configured; the caller closes the stream, so the parser must not
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    /**
+     * Read the top-level fields of a migration file; the payload is skipped without being materialized
+     *
+     * @param in JSON input stream
+     * @return MigrationHeader
+     * @throws IOException if the stream can't be read or isn't a JSON object
+     */
+    public static MigrationHeader readHeader(InputStream in) throws IOException {
+        String name = null;
+        String type = null;
+        List<String> depends = null;
+        boolean hasPayload = false;
+
+        try (JsonParser parser = MAPPER.createParser(in)) {
+            expectRootObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "name" -> name = parser.getValueAsString();
+                    case "type" -> type = parser.getValueAsString();
+                    case "depends" -> depends = value == JsonToken.START_ARRAY ? readStringArray(parser) : null;
+                    case "payload" -> {
+                        hasPayload = value == JsonToken.START_OBJECT;
+                        parser.skipChildren();
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new MigrationHeader(name, type, depends, hasPayload);
+    }
+
+    /**
+     * Stream payload.operations[] of a migration file and hand the rows of each operation to the handler in chunks,
+     * in file order. An operation with no rows is handed over once with an empty list. If an operation lists its
+     * values before its action or table, its rows are buffered until the operation ends.
+     *
+     * @param in        JSON input stream
+     * @param chunkSize maximum number of rows per chunk
+     * @param handler   chunk handler; return false to stop reading
+     * @return true if all operations were read and handled, false if the handler stopped
+     * @throws IOException if the stream can't be read or isn't in the migration format
+     */
+    public static boolean readOperations(InputStream in, int chunkSize, Predicate<MigrationOperation> handler)
+            throws IOException {
+        try (JsonParser parser = MAPPER.createParser(in)) {
+            expectRootObject(parser);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_OBJECT || !field.equals("payload")) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String payloadField = parser.currentName();
+                    if (parser.nextToken() != JsonToken.START_ARRAY || !payloadField.equals("operations")) {
+                        parser.skipChildren();
+                        continue;
+                    }
+
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (token != JsonToken.START_OBJECT) {
+                            throw new JsonParseException(parser, "Migration operation must be an object");
+                        }
+                        if (!readOperation(parser, chunkSize, handler)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read one operation object; the parser is positioned at its START_OBJECT
+     *
+     * @param parser    JSON parser
+     * @param chunkSize maximum number of rows per chunk
+     * @param handler   chunk handler
+     * @return false if the handler stopped
+     * @throws IOException if the operation is malformed
+     */
+    private static boolean readOperation(JsonParser parser, int chunkSize, Predicate<MigrationOperation> handler)
+            throws IOException {
+        String action = null;
+        String table = null;
+        List<Map<String, Object>> buffered = new ArrayList<>();
+        boolean handled = false;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "action" -> action = parser.getValueAsString();
+                case "table" -> table = parser.getValueAsString();
+                case "values" -> {
+                    if (value != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        break;
+                    }
+
+                    // Flush full chunks as they fill up once the target is known
+                    boolean streaming = action != null && table != null;
+                    JsonToken token;
+                    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                        if (token != JsonToken.START_OBJECT) {
+                            throw new JsonParseException(parser, "Migration row must be an object");
+                        }
+                        buffered.add(MAPPER.readValue(parser, ROW_TYPE));
+                        if (streaming && buffered.size() >= chunkSize) {
+                            if (!handler.test(new MigrationOperation(action, table, buffered))) {
+                                return false;
+                            }
+                            handled = true;
+                            buffered = new ArrayList<>();
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        // Hand over the rest
+        if (buffered.isEmpty()) {
+            return handled || handler.test(new MigrationOperation(action, table, buffered));
+        }
+        for (int from = 0; from < buffered.size(); from += chunkSize) {
+            List<Map<String, Object>> chunk = buffered.subList(from, Math.min(from + chunkSize, buffered.size()));
+            if (!handler.test(new MigrationOperation(action, table, chunk))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read an array of strings; the parser is positioned at its START_ARRAY
+     *
+     * @param parser JSON parser
+     * @return list of strings
+     * @throws IOException if an element isn't a scalar
+     */
+    private static List<String> readStringArray(JsonParser parser) throws IOException {
+        List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token.isStructStart()) {
+                throw new JsonParseException(parser, "Expected a string");
+            }
+            values.add(parser.getValueAsString());
+        }
+        return values;
+    }
+
+    /**
+     * Move the parser to the root object
+     *
+     * @param parser JSON parser
+     * @throws IOException if the root isn't an object
+     */
+    private static void expectRootObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Migration file must be a JSON object");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import tech.sjiale.hoyo_achievement_server.dto.MigrationPlan;
+import tech.sjiale.hoyo_achievement_server.dto.MigrationResult;
+import tech.sjiale.hoyo_achievement_server.dto.ParsedMigration;
+
+import java.util.*;
+
+public class MigrationPlanner {
+
+    /**
+     * Order migrations by their dependencies. Already imported migrations are skipped; migrations with a duplicated
+     * name, a missing dependency or a dependency cycle are rejected, together with everything that depends on them.
+     * Independent migrations keep the lexicographic order of their paths.
+     *
+     * @param migrations   parsed migrations
+     * @param appliedNames names of migrations already in the database
+     * @return MigrationPlan
+     */
+    public static MigrationPlan plan(List<ParsedMigration> migrations, Set<String> appliedNames) {
+        List<MigrationResult> results = new ArrayList<>();
+
+        // Keep the first file of every pending name
+        List<ParsedMigration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparing(ParsedMigration::path));
+        Map<String, ParsedMigration> pending = new LinkedHashMap<>();
+        for (ParsedMigration migration : sorted) {
+            if (appliedNames.contains(migration.name())) {
+                results.add(MigrationResult.imported(migration.name()));
+            } else if (pending.containsKey(migration.name())) {
+                results.add(MigrationResult.failed(migration.name(),
+                        "Duplicate migration name, already defined in " + pending.get(migration.name()).path()));
+            } else {
+                pending.put(migration.name(), migration);
+            }
+        }
+
+        // Build the graph; edges point from a dependency to its dependents
+        Map<String, Integer> inDegree = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for (ParsedMigration migration : pending.values()) {
+            int degree = 0;
+            for (String dependency : migration.depends()) {
+                if (pending.containsKey(dependency)) {
+                    dependents.computeIfAbsent(dependency, k -> new ArrayList<>()).add(migration.name());
+                    degree++;
+                }
+            }
+            inDegree.put(migration.name(), degree);
+        }
+
+        // Kahn's algorithm; the queue is ordered by path so the result is deterministic
+        PriorityQueue<ParsedMigration> ready = new PriorityQueue<>(Comparator.comparing(ParsedMigration::path));
+        for (ParsedMigration migration : pending.values()) {
+            if (inDegree.get(migration.name()) == 0) {
+                ready.add(migration);
+            }
+        }
+
+        List<ParsedMigration> ordered = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Set<String> rejected = new HashSet<>();
+        while (!ready.isEmpty()) {
+            ParsedMigration migration = ready.poll();
+            visited.add(migration.name());
+
+            String reason = rejectReason(migration, pending, appliedNames, rejected);
+            if (reason == null) {
+                ordered.add(migration);
+            } else {
+                rejected.add(migration.name());
+                results.add(MigrationResult.failed(migration.name(), reason));
+            }
+
+            for (String dependent : dependents.getOrDefault(migration.name(), List.of())) {
+                if (inDegree.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(pending.get(dependent));
+                }
+            }
+        }
+
+        // Whatever was never released is in a cycle or depends on one
+        for (ParsedMigration migration : pending.values()) {
+            if (!visited.contains(migration.name())) {
+                results.add(MigrationResult.failed(migration.name(), "Dependency cycle detected"));
+            }
+        }
+
+        return new MigrationPlan(ordered, results);
+    }
+
+    /**
+     * Check the dependencies of a migration whose pending dependencies have all been planned
+     *
+     * @param migration    migration to check
+     * @param pending      pending migrations by name
+     * @param appliedNames names of migrations already in the database
+     * @param rejected     names of rejected migrations
+     * @return reason of the rejection, null if the migration can be applied
+     */
+    private static String rejectReason(ParsedMigration migration, Map<String, ParsedMigration> pending,
+                                       Set<String> appliedNames, Set<String> rejected) {
+        for (String dependency : migration.depends()) {
+            if (rejected.contains(dependency)) {
+                return "Dependency '" + dependency + "' is rejected";
+            }
+            if (!pending.containsKey(dependency) && !appliedNames.contains(dependency)) {
+                return "Missing dependency '" + dependency + "'";
+            }
+        }
+        return null;
+    }
+}
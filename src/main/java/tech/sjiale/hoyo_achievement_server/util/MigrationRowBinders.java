@@ -0,0 +1,63 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import tech.sjiale.hoyo_achievement_server.entity.*;
+
+/**
+ * Row binders of every table a migration file can write to; built once when the class is loaded
+ */
+public class MigrationRowBinders {
+
+    public static final RowBinder<ServerInfo> SERVER_INFO = RowBinder.builder(ServerInfo::new)
+            .optional("info_id", "infoId", RowBinder::toLong, ServerInfo::getInfoId, ServerInfo::setInfoId)
+            .required("server_version", "serverVersion", RowBinder::toStr,
+                    ServerInfo::getServerVersion, ServerInfo::setServerVersion)
+            .required("zzz_version", "zzzVersion", RowBinder::toStr,
+                    ServerInfo::getZzzVersion, ServerInfo::setZzzVersion)
+            .required("sr_version", "srVersion", RowBinder::toStr,
+                    ServerInfo::getSrVersion, ServerInfo::setSrVersion)
+            .required("update_description", "updateDescription", RowBinder::toStr,
+                    ServerInfo::getUpdateDescription, ServerInfo::setUpdateDescription)
+            .optional("updated_at", "updatedAt", RowBinder::toLocalDateTime,
+                    ServerInfo::getUpdatedAt, ServerInfo::setUpdatedAt)
+            .build();
+
+    public static final RowBinder<SrAchievement> SR_ACHIEVEMENT = RowBinder.builder(SrAchievement::new)
+            .required("achievement_id", "achievementId", RowBinder::toInteger,
+                    SrAchievement::getAchievementId, SrAchievement::setAchievementId)
+            .required("class_name", "className", RowBinder::toStr,
+                    SrAchievement::getClassName, SrAchievement::setClassName)
+            .required("name", "name", RowBinder::toStr, SrAchievement::getName, SrAchievement::setName)
+            .required("description", "description", RowBinder::toStr,
+                    SrAchievement::getDescription, SrAchievement::setDescription)
+            .required("reward_level", "rewardLevel", RowBinder::toInteger,
+                    SrAchievement::getRewardLevel, SrAchievement::setRewardLevel)
+            .required("game_version", "gameVersion", RowBinder::toStr,
+                    SrAchievement::getGameVersion, SrAchievement::setGameVersion)
+            .build();
+
+    public static final RowBinder<SrBranch> SR_BRANCH = RowBinder.builder(SrBranch::new)
+            .required("achievement_id", "achievementId", RowBinder::toInteger,
+                    SrBranch::getAchievementId, SrBranch::setAchievementId)
+            .required("branch_id", "branchId", RowBinder::toInteger, SrBranch::getBranchId, SrBranch::setBranchId)
+            .build();
+
+    public static final RowBinder<ZzzAchievement> ZZZ_ACHIEVEMENT = RowBinder.builder(ZzzAchievement::new)
+            .required("achievement_id", "achievementId", RowBinder::toInteger,
+                    ZzzAchievement::getAchievementId, ZzzAchievement::setAchievementId)
+            .required("class_id", "classId", RowBinder::toInteger,
+                    ZzzAchievement::getClassId, ZzzAchievement::setClassId)
+            .required("name", "name", RowBinder::toStr, ZzzAchievement::getName, ZzzAchievement::setName)
+            .required("description", "description", RowBinder::toStr,
+                    ZzzAchievement::getDescription, ZzzAchievement::setDescription)
+            .required("reward_level", "rewardLevel", RowBinder::toInteger,
+                    ZzzAchievement::getRewardLevel, ZzzAchievement::setRewardLevel)
+            .required("game_version", "gameVersion", RowBinder::toStr,
+                    ZzzAchievement::getGameVersion, ZzzAchievement::setGameVersion)
+            .build();
+
+    public static final RowBinder<ZzzBranch> ZZZ_BRANCH = RowBinder.builder(ZzzBranch::new)
+            .required("achievement_id", "achievementId", RowBinder::toInteger,
+                    ZzzBranch::getAchievementId, ZzzBranch::setAchievementId)
+            .required("branch_id", "branchId", RowBinder::toInteger, ZzzBranch::getBranchId, ZzzBranch::setBranchId)
+            .build();
+}
@@ -0,0 +1,77 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Logs virtual threads that block while pinned to their carrier, e.g. inside a synchronized block, using the JFR
+ * jdk.VirtualThreadPinned event. The log names the first frame from a library known to synchronize around I/O.
+ */
+@Slf4j
+public class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAMES = 12;
+    private static final List<String> WATCHED_PACKAGES = List.of(
+            "org.apache.ibatis.", "com.baomidou.", "cn.dev33.satoken.", "com.mysql.", "com.zaxxer.hikari.");
+
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    /**
+     * @param threshold shortest pinned time that is logged
+     */
+    public PinnedThreadMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::logEvent);
+        stream.startAsync();
+        log.info("Logging virtual threads pinned for more than {} ms.", threshold.toMillis());
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void logEvent(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            log.warn("Virtual thread pinned for {} ms, no stack trace.", event.getDuration().toMillis());
+            return;
+        }
+
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame culprit = frames.stream()
+                .filter(frame -> WATCHED_PACKAGES.stream().anyMatch(typeName(frame)::startsWith))
+                .findFirst()
+                .orElse(frames.getFirst());
+        String trace = frames.stream()
+                .limit(MAX_FRAMES)
+                .map(PinnedThreadMonitor::format)
+                .collect(Collectors.joining("\n\tat "));
+        log.warn("Virtual thread pinned for {} ms in {}:\n\tat {}", event.getDuration().toMillis(), format(culprit),
+                trace);
+    }
+
+    private static String typeName(RecordedFrame frame) {
+        return frame.getMethod().getType().getName();
+    }
+
+    private static String format(RecordedFrame frame) {
+        return typeName(frame) + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,115 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import tech.sjiale.hoyo_achievement_server.dto.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes export rows one at a time as NDJSON or CSV, so an export of any size holds only one row in memory. The
+ * caller owns the output stream; flush the writer when done.
+ */
+public class RecordExportWriter implements Flushable {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final List<String> columns;
+    private final Writer writer;
+    private final JsonGenerator generator;
+
+    /**
+     * Create a writer; the CSV header is written right away
+     *
+     * @param format  output format
+     * @param columns column names, also the NDJSON keys
+     * @param out     output stream
+     * @throws IOException if the header can't be written
+     */
+    public RecordExportWriter(ExportFormat format, List<String> columns, OutputStream out) throws IOException {
+        this.columns = List.copyOf(columns);
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.NDJSON) {
+            this.generator = JSON_FACTORY.createGenerator(writer);
+            this.generator.setRootValueSeparator(null);
+        } else {
+            this.generator = null;
+            writeCsvLine(this.columns.toArray());
+        }
+    }
+
+    /**
+     * Write one row
+     *
+     * @param values values in column order; null is written as JSON null or an empty CSV field
+     * @throws IOException if the row can't be written
+     */
+    public void writeRow(Object... values) throws IOException {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.length);
+        }
+        if (generator == null) {
+            writeCsvLine(values);
+            return;
+        }
+
+        generator.writeStartObject();
+        for (int i = 0; i < values.length; i++) {
+            generator.writeFieldName(columns.get(i));
+            switch (values[i]) {
+                case null -> generator.writeNull();
+                case Integer value -> generator.writeNumber(value);
+                case Long value -> generator.writeNumber(value);
+                default -> generator.writeString(values[i].toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote a CSV field if it contains a separator, quote or line break (RFC 4180)
+     *
+     * @param value field value
+     * @return escaped field
+     */
+    private static String escapeCsv(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
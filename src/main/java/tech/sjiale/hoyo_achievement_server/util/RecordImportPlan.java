@@ -0,0 +1,121 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import tech.sjiale.hoyo_achievement_server.dto.ImportReject;
+import tech.sjiale.hoyo_achievement_server.dto.ImportRow;
+import tech.sjiale.hoyo_achievement_server.dto.achievement_request.UpdateRecordItem;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Collects the rows of an import and turns them into record updates. Only the last row of each achievement is kept,
+ * so memory is bounded by the catalog size rather than the file size. Branches are resolved before anything is
+ * written: a completed achievement wins over the other rows of its branch, so applying the updates in chunks gives
+ * the same result as applying them at once. An incomplete row of a branch without a completed row is skipped, since
+ * writing it would reset its siblings, and the file says nothing about them.
+ */
+public class RecordImportPlan {
+
+    private final IntPredicate catalogContains;
+    private final BranchIndex branchIndex;
+    private final int maxListedRejects;
+
+    // Last valid row of each achievement, in the order of their last occurrence
+    private final LinkedHashMap<Integer, ImportRow> latest = new LinkedHashMap<>();
+    private final List<ImportReject> rejects = new ArrayList<>();
+    private int rows;
+    private int rejected;
+
+    /**
+     * Create a plan
+     *
+     * @param catalogContains  checks if an achievement id is in the catalog
+     * @param branchIndex      branch membership of the catalog
+     * @param maxListedRejects rejected rows kept for the report; all are counted
+     */
+    public RecordImportPlan(IntPredicate catalogContains, BranchIndex branchIndex, int maxListedRejects) {
+        this.catalogContains = catalogContains;
+        this.branchIndex = branchIndex;
+        this.maxListedRejects = maxListedRejects;
+    }
+
+    /**
+     * Add a row read from the file
+     *
+     * @param row import row
+     */
+    public void add(ImportRow row) {
+        rows++;
+        if (row.error() != null) {
+            reject(row, row.error());
+        } else if (!catalogContains.test(row.achievementId())) {
+            reject(row, "Achievement id doesn't exist");
+        } else {
+            latest.remove(row.achievementId());
+            latest.put(row.achievementId(), row);
+        }
+    }
+
+    /**
+     * Resolve branches and build the updates; completed rows that lose to a later completed row of the same branch
+     * are rejected, incomplete rows of a branch with a completed achievement are folded into it, and incomplete rows
+     * of a branch without one are skipped
+     *
+     * @return updates in file order
+     */
+    public List<UpdateRecordItem> resolve() {
+        // The last completed row of each branch wins
+        Map<Integer, Integer> winners = new HashMap<>();
+        for (ImportRow row : latest.values()) {
+            if (row.completeStatus() == 1 && branchIndex.isInBranch(row.achievementId())) {
+                winners.put(branchIndex.branchOf(row.achievementId()), row.achievementId());
+            }
+        }
+
+        List<UpdateRecordItem> items = new ArrayList<>(latest.size());
+        for (ImportRow row : latest.values()) {
+            if (branchIndex.isInBranch(row.achievementId())) {
+                Integer winner = winners.get(branchIndex.branchOf(row.achievementId()));
+                if (winner == null) {
+                    // An incomplete update would reset the siblings, e.g. wipe a completion the file doesn't list
+                    continue;
+                }
+                if (winner.intValue() != row.achievementId()) {
+                    if (row.completeStatus() == 1) {
+                        reject(row, "Another achievement of its branch is completed");
+                    }
+                    continue;
+                }
+            }
+
+            UpdateRecordItem item = new UpdateRecordItem();
+            item.setAchievementId(row.achievementId());
+            item.setCompleteStatus(row.completeStatus());
+            items.add(item);
+        }
+        return items;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int rejected() {
+        return rejected;
+    }
+
+    public List<ImportReject> rejects() {
+        return rejects;
+    }
+
+    private void reject(ImportRow row, String reason) {
+        rejected++;
+        if (rejects.size() < maxListedRejects) {
+            rejects.add(new ImportReject(row.row(), row.achievementId(), reason));
+        }
+    }
+}
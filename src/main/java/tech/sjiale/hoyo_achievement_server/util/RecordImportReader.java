@@ -0,0 +1,257 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import tech.sjiale.hoyo_achievement_server.dto.ImportFormat;
+import tech.sjiale.hoyo_achievement_server.dto.ImportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of record import files. Rows are handed over one at a time as they are parsed, so the file is
+ * never held in memory. A row that can't be read is handed over as invalid; only a malformed file stops the read.
+ * The caller owns the input stream and must close it.
+ */
+public class RecordImportReader {
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Read an import file
+     *
+     * @param format   file format
+     * @param in       input stream
+     * @param consumer row handler
+     * @throws IOException if the stream can't be read or the file is malformed
+     */
+    public static void read(ImportFormat format, InputStream in, Consumer<ImportRow> consumer) throws IOException {
+        switch (format) {
+            case UIAF -> readUiaf(in, consumer);
+            case CSV -> readCsv(in, consumer);
+        }
+    }
+
+    /**
+     * Read list[] of a UIAF-style JSON object; other fields are skipped
+     *
+     * @param in       input stream
+     * @param consumer row handler
+     * @throws IOException if the file isn't a JSON object
+     */
+    private static void readUiaf(InputStream in, Consumer<ImportRow> consumer) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Import file must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !field.equals("list")) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                int row = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    row++;
+                    if (token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        consumer.accept(ImportRow.invalid(row, null, "Row must be an object"));
+                        continue;
+                    }
+
+                    Integer id = null;
+                    Integer status = null;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        switch (name) {
+                            case "id" -> id = readInt(parser, value);
+                            case "status" -> status = readInt(parser, value);
+                            default -> parser.skipChildren();
+                        }
+                    }
+                    consumer.accept(fromUiafStatus(row, id, status));
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a CSV file with a header row; columns other than the id and status are ignored
+     *
+     * @param in       input stream
+     * @param consumer row handler
+     * @throws IOException if the header lacks the id or status column
+     */
+    private static void readCsv(InputStream in, Consumer<ImportRow> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        List<String> header = readCsvRecord(reader);
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+
+        int idColumn = -1;
+        int completeColumn = -1;
+        int statusColumn = -1;
+        for (int i = 0; i < header.size(); i++) {
+            // Excel writes a byte order mark
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase();
+            switch (name) {
+                case "achievement_id", "id" -> idColumn = i;
+                case "complete" -> completeColumn = i;
+                case "status" -> statusColumn = i;
+                default -> {
+                }
+            }
+        }
+        if (idColumn < 0 || (completeColumn < 0 && statusColumn < 0)) {
+            throw new IOException("CSV header must have an achievement_id and a complete or status column");
+        }
+
+        int row = 0;
+        List<String> fields;
+        while ((fields = readCsvRecord(reader)) != null) {
+            if (fields.size() == 1 && fields.getFirst().isBlank()) continue;
+            row++;
+
+            Integer id = parseInt(field(fields, idColumn));
+            if (completeColumn >= 0) {
+                Integer complete = parseInt(field(fields, completeColumn));
+                if (id == null) {
+                    consumer.accept(ImportRow.invalid(row, null, "Missing achievement id"));
+                } else if (complete == null || complete < 0 || complete > 2) {
+                    consumer.accept(ImportRow.invalid(row, id, "Invalid complete status"));
+                } else {
+                    // 2 marks a branch sibling of a completed achievement, which is restored with it
+                    consumer.accept(ImportRow.valid(row, id, complete == 1 ? 1 : 0));
+                }
+            } else {
+                consumer.accept(fromUiafStatus(row, id, parseInt(field(fields, statusColumn))));
+            }
+        }
+    }
+
+    /**
+     * Convert a UIAF status to a complete status
+     *
+     * @param row    row number
+     * @param id     achievement id
+     * @param status UIAF status
+     * @return ImportRow
+     */
+    private static ImportRow fromUiafStatus(int row, Integer id, Integer status) {
+        if (id == null) {
+            return ImportRow.invalid(row, null, "Missing achievement id");
+        }
+        if (status == null) {
+            return ImportRow.invalid(row, id, "Invalid status");
+        }
+        return switch (status) {
+            case 1 -> ImportRow.valid(row, id, 0);
+            case 2, 3 -> ImportRow.valid(row, id, 1);
+            default -> ImportRow.invalid(row, id, "Invalid status");
+        };
+    }
+
+    /**
+     * Read an int value; the parser is positioned at the value
+     *
+     * @param parser JSON parser
+     * @param value  current token
+     * @return the value, or null if it isn't an int or a string holding one
+     * @throws IOException if the value can't be skipped
+     */
+    private static Integer readInt(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+            return parser.getIntValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            return parseInt(parser.getText());
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Integer parseInt(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    /**
+     * Read one CSV record (RFC 4180); a quoted field may span lines
+     *
+     * @param reader input
+     * @return fields, or null at the end of the input
+     * @throws IOException if the input can't be read or a quote isn't closed
+     */
+    private static List<String> readCsvRecord(Reader reader) throws IOException {
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unclosed quote in CSV file");
+                }
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        reader.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c < 0 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == '\r') {
+                // Part of CRLF, or a lone line break
+                reader.mark(1);
+                if (reader.read() != '\n') {
+                    reader.reset();
+                }
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+}
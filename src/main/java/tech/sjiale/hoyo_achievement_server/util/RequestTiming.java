@@ -0,0 +1,140 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Time spent in named steps of the current request, reported in the Server-Timing header by ServerTimingFilter.
+ * Outside a timed request every call is a thread-local lookup returning a no-op, so spans can stay in hot paths.
+ * <pre>
+ * try (RequestTiming.Span span = RequestTiming.span("seq")) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class RequestTiming {
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+    private static final Span NOOP = () -> {
+    };
+
+    private final long startNanos = System.nanoTime();
+    // Span name -> {total nanos, count}, in the order the spans were first recorded
+    private final Map<String, long[]> spans = new LinkedHashMap<>();
+    private long writeStartNanos;
+
+    /**
+     * A running span; closing it records its time
+     */
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private RequestTiming() {
+    }
+
+    /**
+     * Start timing a request on this thread
+     *
+     * @return RequestTiming of the request
+     */
+    public static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * Stop timing on this thread
+     */
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Start a span; spans with the same name are summed
+     *
+     * @param name span name, a token without spaces
+     * @return Span to close when the step ends
+     */
+    public static Span span(String name) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return NOOP;
+        }
+        long start = System.nanoTime();
+        return () -> timing.add(name, System.nanoTime() - start);
+    }
+
+    /**
+     * Add time measured elsewhere to a span
+     *
+     * @param name  span name
+     * @param nanos elapsed time
+     */
+    public static void record(String name, long nanos) {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.add(name, nanos);
+        }
+    }
+
+    /**
+     * Mark the start of writing the response body
+     */
+    public static void markWrite() {
+        RequestTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.writeStartNanos = System.nanoTime();
+        }
+    }
+
+    private void add(String name, long nanos) {
+        long[] span = spans.computeIfAbsent(name, key -> new long[2]);
+        span[0] += nanos;
+        span[1]++;
+    }
+
+    /**
+     * Close the write span, if the body writing started, and the total; called once when the response is committed
+     */
+    void finish() {
+        if (writeStartNanos != 0) {
+            add("write", System.nanoTime() - writeStartNanos);
+            writeStartNanos = 0;
+        }
+        add("total", System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Format the spans as a Server-Timing header value
+     *
+     * @return e.g. satoken;dur=0.12, db;dur=3.40;desc="4x", total;dur=5.02
+     */
+    String toHeader() {
+        StringJoiner joiner = new StringJoiner(", ");
+        spans.forEach((name, span) -> {
+            String entry = name + ";dur=" + millis(span[0]);
+            joiner.add(span[1] > 1 ? entry + ";desc=\"" + span[1] + "x\"" : entry);
+        });
+        return joiner.toString();
+    }
+
+    /**
+     * Format the spans as key=value pairs for the access log
+     *
+     * @return e.g. satoken=0.12 db=3.40 total=5.02
+     */
+    String toLogFields() {
+        StringJoiner joiner = new StringJoiner(" ");
+        spans.forEach((name, span) -> joiner.add(name + "=" + millis(span[0])));
+        return joiner.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+}
@@ -0,0 +1,277 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Binds migration rows to an entity through getters and setters given as method references, so no reflection or
+ * bean introspection happens per row. Keys match a field by its column name or property name, ignoring case and
+ * underscores, the same keys Hutool BeanUtil accepted with ignore-case.
+ */
+public final class RowBinder<T> {
+
+    private record Binding<T>(
+            Function<Object, ?> converter,
+            Function<T, ?> getter,
+            BiConsumer<T, Object> setter,
+            boolean required
+    ) {
+    }
+
+    private final Supplier<T> factory;
+    // Exact column and property names, so the common case needs no normalization
+    private final Map<String, Binding<T>> byName;
+    private final Map<String, Binding<T>> byNormalizedName;
+    private final List<Binding<T>> requiredBindings;
+
+    private RowBinder(Supplier<T> factory, Map<String, Binding<T>> byName, Map<String, Binding<T>> byNormalizedName,
+                      List<Binding<T>> requiredBindings) {
+        this.factory = factory;
+        this.byName = byName;
+        this.byNormalizedName = byNormalizedName;
+        this.requiredBindings = requiredBindings;
+    }
+
+    /**
+     * Start building a binder
+     *
+     * @param factory entity constructor
+     * @return Builder
+     */
+    public static <T> Builder<T> builder(Supplier<T> factory) {
+        return new Builder<>(factory);
+    }
+
+    /**
+     * Create an entity from a row; unknown keys are ignored
+     *
+     * @param row migration row
+     * @return new entity
+     * @throws IllegalArgumentException if a value can't be converted to its field type
+     */
+    public T toBean(Map<String, Object> row) {
+        T bean = factory.get();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            Binding<T> binding = find(entry.getKey());
+            if (binding != null && entry.getValue() != null) {
+                binding.setter().accept(bean, binding.converter().apply(entry.getValue()));
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Copy the non-null values of a row into an existing entity; unknown keys and values that can't be converted are
+     * skipped, as BeanUtil.fillBeanWithMap did with ignoreNullValue and ignoreError
+     *
+     * @param row    migration row
+     * @param target entity to update
+     */
+    public void fill(Map<String, Object> row, T target) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            Binding<T> binding = find(entry.getKey());
+            if (binding == null || entry.getValue() == null) continue;
+
+            Object value;
+            try {
+                value = binding.converter().apply(entry.getValue());
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                continue;
+            }
+            binding.setter().accept(target, value);
+        }
+    }
+
+    /**
+     * Check if any required field of an entity is null
+     *
+     * @param bean entity
+     * @return true if a required field is missing
+     */
+    public boolean hasMissingField(T bean) {
+        for (Binding<T> binding : requiredBindings) {
+            if (binding.getter().apply(bean) == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Binding<T> find(String key) {
+        Binding<T> binding = byName.get(key);
+        return binding != null ? binding : byNormalizedName.get(normalize(key));
+    }
+
+    /**
+     * Lower-case a key and drop underscores, so "achievement_id", "achievementId" and "ACHIEVEMENT_ID" are equal
+     *
+     * @param key row key or field name
+     * @return normalized key
+     */
+    private static String normalize(String key) {
+        StringBuilder builder = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '_') {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Convert a row value to Integer; numbers with a fractional part or out of range are rejected
+     *
+     * @param value JSON value
+     * @return Integer
+     */
+    public static Integer toInteger(Object value) {
+        if (value instanceof Integer i) return i;
+        if (value instanceof Number n) return Math.toIntExact(integralValue(n));
+        if (value instanceof String s) return Integer.valueOf(s.trim());
+        throw new IllegalArgumentException("Expected an integer but got: " + value);
+    }
+
+    /**
+     * Convert a row value to Long; numbers with a fractional part or out of range are rejected
+     *
+     * @param value JSON value
+     * @return Long
+     */
+    public static Long toLong(Object value) {
+        if (value instanceof Long l) return l;
+        if (value instanceof Number n) return integralValue(n);
+        if (value instanceof String s) return Long.valueOf(s.trim());
+        throw new IllegalArgumentException("Expected an integer but got: " + value);
+    }
+
+    /**
+     * Get the exact long value of a number
+     *
+     * @param number JSON number
+     * @return long value
+     * @throws IllegalArgumentException if the number has a fractional part
+     * @throws ArithmeticException      if the number is out of the long range
+     */
+    private static long integralValue(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        }
+        if (number instanceof BigInteger big) {
+            return big.longValueExact();
+        }
+
+        BigDecimal decimal;
+        try {
+            decimal = number instanceof BigDecimal d ? d : new BigDecimal(number.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected an integer but got: " + number, e);
+        }
+        if (decimal.signum() != 0 && decimal.stripTrailingZeros().scale() > 0) {
+            throw new IllegalArgumentException("Expected an integer but got: " + number);
+        }
+        return decimal.longValueExact();
+    }
+
+    /**
+     * Convert a row value to String
+     *
+     * @param value JSON value
+     * @return String
+     */
+    public static String toStr(Object value) {
+        if (value instanceof String s) return s;
+        if (value instanceof Number || value instanceof Boolean) return value.toString();
+        throw new IllegalArgumentException("Expected a string but got: " + value);
+    }
+
+    /**
+     * Convert a row value to LocalDateTime; accepts ISO-8601 with either 'T' or a space between date and time
+     *
+     * @param value JSON value
+     * @return LocalDateTime
+     */
+    public static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof String s) {
+            try {
+                return LocalDateTime.parse(s.trim().replace(' ', 'T'));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Expected a date time but got: " + value, e);
+            }
+        }
+        throw new IllegalArgumentException("Expected a date time but got: " + value);
+    }
+
+    public static final class Builder<T> {
+
+        private final Supplier<T> factory;
+        private final Map<String, Binding<T>> byName = new HashMap<>();
+        private final Map<String, Binding<T>> byNormalizedName = new HashMap<>();
+        private final List<Binding<T>> requiredBindings = new ArrayList<>();
+
+        private Builder(Supplier<T> factory) {
+            this.factory = factory;
+        }
+
+        /**
+         * Add a field that must be present for an insert
+         *
+         * @param column    column name
+         * @param property  property name
+         * @param converter value converter
+         * @param getter    field getter
+         * @param setter    field setter
+         * @return this
+         */
+        public <V> Builder<T> required(String column, String property, Function<Object, V> converter,
+                                       Function<T, V> getter, BiConsumer<T, V> setter) {
+            return add(column, property, converter, getter, setter, true);
+        }
+
+        /**
+         * Add a field that may be absent
+         *
+         * @param column    column name
+         * @param property  property name
+         * @param converter value converter
+         * @param getter    field getter
+         * @param setter    field setter
+         * @return this
+         */
+        public <V> Builder<T> optional(String column, String property, Function<Object, V> converter,
+                                       Function<T, V> getter, BiConsumer<T, V> setter) {
+            return add(column, property, converter, getter, setter, false);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <V> Builder<T> add(String column, String property, Function<Object, V> converter,
+                                   Function<T, V> getter, BiConsumer<T, V> setter, boolean required) {
+            Binding<T> binding = new Binding<>(converter, getter, (BiConsumer<T, Object>) setter, required);
+            byName.put(column, binding);
+            byName.put(property, binding);
+            byNormalizedName.put(normalize(column), binding);
+            if (required) {
+                requiredBindings.add(binding);
+            }
+            return this;
+        }
+
+        /**
+         * Build the binder
+         *
+         * @return RowBinder
+         */
+        public RowBinder<T> build() {
+            return new RowBinder<>(factory, Map.copyOf(byName), Map.copyOf(byNormalizedName),
+                    List.copyOf(requiredBindings));
+        }
+    }
+}
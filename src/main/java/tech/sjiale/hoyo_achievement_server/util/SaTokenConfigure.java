@@ -1,20 +1,82 @@
 package tech.sjiale.hoyo_achievement_server.util;
 
+import cn.dev33.satoken.exception.NotLoginException;
 import cn.dev33.satoken.interceptor.SaInterceptor;
+import cn.dev33.satoken.serializer.SaSerializerTemplate;
+import cn.dev33.satoken.serializer.impl.SaSerializerTemplateForJdkUseBase64;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tech.sjiale.hoyo_achievement_server.service.AuthContextService;
+import tech.sjiale.hoyo_achievement_server.service.TokenRevocationService;
 
 @Configuration
+@RequiredArgsConstructor
 public class SaTokenConfigure implements WebMvcConfigurer {
 
+    private final AuthContextService authContextService;
+
+    /**
+     * Sessions kept in the sa_token_store table are written as JDK-serialized Base64 strings, since no Sa-Token JSON
+     * plugin is on the classpath to read them back
+     *
+     * @return SaSerializerTemplate
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.satoken.store", havingValue = "mysql", matchIfMissing = true)
+    public SaSerializerTemplate saSerializerTemplate() {
+        return new SaSerializerTemplateForJdkUseBase64();
+    }
+
+    /**
+     * In stateless mode, login issues signed tokens that any node can validate without the token store
+     *
+     * @param secret                 HMAC key, at least 32 bytes
+     * @param tokenRevocationService revoked tokens
+     * @return StpLogic
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.satoken.mode", havingValue = "stateless")
+    public StpLogic stpLogic(@Value("${app.satoken.secret:}") String secret,
+                             TokenRevocationService tokenRevocationService) {
+        return new StpLogicForSignedToken(secret, tokenRevocationService);
+    }
+
     /**
-     * Register the Sa-Token interceptor to enable annotation authentication
+     * Register the Sa-Token interceptor to enable annotation authentication and refuse denied users; its checks are
+     * timed as the "satoken" span
      *
      * @param registry InterceptorRegistry
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new SaInterceptor()).addPathPatterns("/**");
+        // After the annotation checks, refuse users disabled on this node; kicked-out tokens elsewhere stop working
+        // once the token store or the revocation poll catches up
+        SaInterceptor saInterceptor = new SaInterceptor(handler -> {
+            Object loginId = StpUtil.getLoginIdDefaultNull();
+            if (loginId != null && authContextService.isDenied(Long.valueOf(loginId.toString()))) {
+                throw NotLoginException.newInstance(StpUtil.getLoginType(), NotLoginException.KICK_OUT,
+                        NotLoginException.KICK_OUT_MESSAGE, StpUtil.getTokenValue());
+            }
+        });
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                     @NonNull Object handler) throws Exception {
+                try (RequestTiming.Span span = RequestTiming.span("satoken")) {
+                    return saInterceptor.preHandle(request, response, handler);
+                }
+            }
+        }).addPathPatterns("/**");
     }
 }
@@ -0,0 +1,282 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import cn.dev33.satoken.dao.auto.SaTokenDaoByObjectFollowString;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import tech.sjiale.hoyo_achievement_server.entity.SaTokenStore;
+import tech.sjiale.hoyo_achievement_server.mapper.SaTokenStoreMapper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sa-Token storage in the sa_token_store table, so logins survive a restart. Objects and sessions are serialized to
+ * strings by Sa-Token. Reads go through a bounded near-cache whose entries are reloaded after a TTL. Set, delete and
+ * value updates are written at once, since an update also marks a token as kicked out or replaced and must not be
+ * lost; only renewals, i.e. last-active times and timeouts, are coalesced per key and written in batches. Expired
+ * rows are deleted periodically.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.satoken.store", havingValue = "mysql", matchIfMissing = true)
+public class SaTokenDaoForMysql implements SaTokenDaoByObjectFollowString {
+
+    // Rows per batched update or expired-row delete
+    private static final int BATCH_SIZE = 500;
+    // Part of the key Sa-Token renews the last active time of a token under
+    private static final String LAST_ACTIVE_KEY = ":last-active:";
+
+    /**
+     * A stored value
+     *
+     * @param value    value
+     * @param expireAt epoch millis, null never expires
+     */
+    private record Entry(String value, Long expireAt) {
+        boolean isExpired(long now) {
+            return expireAt != null && expireAt <= now;
+        }
+    }
+
+    /**
+     * Changes of a key not yet written; a null field is unchanged
+     *
+     * @param value     new value
+     * @param expireSet true if the expiry changed
+     * @param expireAt  new expiry, null never expires
+     */
+    private record PendingWrite(String value, boolean expireSet, Long expireAt) {
+        PendingWrite merge(PendingWrite newer) {
+            return new PendingWrite(newer.value != null ? newer.value : value,
+                    expireSet || newer.expireSet,
+                    newer.expireSet ? newer.expireAt : expireAt);
+        }
+    }
+
+    private final SaTokenStoreMapper saTokenStoreMapper;
+    private final LRUCache<String, Entry> cache;
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    // Orders direct writes against batch writes of the same key
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public SaTokenDaoForMysql(SaTokenStoreMapper saTokenStoreMapper,
+                              @Value("${app.satoken.cache-size:10000}") int cacheSize,
+                              @Value("${app.satoken.cache-ttl-seconds:60}") long cacheTtlSeconds) {
+        this.saTokenStoreMapper = saTokenStoreMapper;
+        this.cache = CacheUtil.newLRUCache(cacheSize, cacheTtlSeconds * 1000);
+    }
+
+    @Override
+    public String get(String key) {
+        Entry entry = load(key);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void set(String key, String value, long timeout) {
+        if (timeout == 0 || timeout <= NOT_VALUE_EXPIRE) {
+            return;
+        }
+        Entry entry = new Entry(value, expireAt(timeout));
+        writeLock.lock();
+        try {
+            pending.remove(key);
+            saTokenStoreMapper.upsert(new SaTokenStore(key, value, entry.expireAt()));
+            cache.put(key, entry);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void update(String key, String value) {
+        Entry entry = load(key);
+        if (entry == null) {
+            return;
+        }
+        if (key.contains(LAST_ACTIVE_KEY)) {
+            pending.merge(key, new PendingWrite(value, false, null), PendingWrite::merge);
+            cache.put(key, new Entry(value, entry.expireAt()));
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            // A pending renewal of the key is kept, only its value is written now
+            pending.computeIfPresent(key, (k, write) -> write.expireSet() ? new PendingWrite(null, true,
+                    write.expireAt()) : null);
+            saTokenStoreMapper.updateValues(List.of(new SaTokenStore(key, value, null)));
+            cache.put(key, new Entry(value, entry.expireAt()));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void delete(String key) {
+        writeLock.lock();
+        try {
+            pending.remove(key);
+            cache.remove(key);
+            saTokenStoreMapper.deleteById(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long getTimeout(String key) {
+        Entry entry = load(key);
+        if (entry == null) {
+            return NOT_VALUE_EXPIRE;
+        }
+        if (entry.expireAt() == null) {
+            return NEVER_EXPIRE;
+        }
+        return (entry.expireAt() - System.currentTimeMillis()) / 1000;
+    }
+
+    @Override
+    public void updateTimeout(String key, long timeout) {
+        Entry entry = load(key);
+        if (entry == null) {
+            return;
+        }
+        Long expireAt = expireAt(timeout);
+        pending.merge(key, new PendingWrite(null, true, expireAt), PendingWrite::merge);
+        cache.put(key, new Entry(entry.value(), expireAt));
+    }
+
+    @Override
+    public List<String> searchData(String prefix, String keyword, int start, int size, boolean sortType) {
+        // Unwritten changes don't add or remove keys, only renewals may be behind
+        flush();
+        List<String> keys = saTokenStoreMapper.searchKeys(escapeLike(prefix), keyword, System.currentTimeMillis(),
+                sortType, Math.max(start, 0), size);
+        if (size < 0 && start > 0) {
+            return start >= keys.size() ? List.of() : new ArrayList<>(keys.subList(start, keys.size()));
+        }
+        return keys;
+    }
+
+    /**
+     * Write the coalesced renewals. Only UPDATE statements are used, so a key deleted after it was
+     * updated is not written back. A failed batch is kept for the next flush unless the key changed again.
+     */
+    @Scheduled(fixedDelayString = "${app.satoken.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<String, PendingWrite> writes = new HashMap<>();
+            for (String key : pending.keySet()) {
+                PendingWrite write = pending.remove(key);
+                if (write != null) {
+                    writes.put(key, write);
+                }
+            }
+
+            List<SaTokenStore> values = new ArrayList<>();
+            List<SaTokenStore> expires = new ArrayList<>();
+            for (Map.Entry<String, PendingWrite> write : writes.entrySet()) {
+                if (write.getValue().value() != null) {
+                    values.add(new SaTokenStore(write.getKey(), write.getValue().value(), null));
+                }
+                if (write.getValue().expireSet()) {
+                    expires.add(new SaTokenStore(write.getKey(), null, write.getValue().expireAt()));
+                }
+            }
+            try {
+                for (int from = 0; from < values.size(); from += BATCH_SIZE) {
+                    saTokenStoreMapper.updateValues(values.subList(from, Math.min(from + BATCH_SIZE, values.size())));
+                }
+                for (int from = 0; from < expires.size(); from += BATCH_SIZE) {
+                    saTokenStoreMapper.updateExpires(expires.subList(from, Math.min(from + BATCH_SIZE, expires.size())));
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} Sa-Token updates, retry on the next flush.", writes.size(), e);
+                writes.forEach((key, write) -> pending.merge(key, write, (newer, older) -> older.merge(newer)));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Delete expired rows in small batches; pending renewals are written first, so a key renewed just before its
+     * old expiry is not lost
+     */
+    @Scheduled(fixedDelayString = "${app.satoken.sweep-interval-ms:600000}",
+            initialDelayString = "${app.satoken.sweep-interval-ms:600000}")
+    public void sweep() {
+        flush();
+        long now = System.currentTimeMillis();
+        int deleted;
+        int total = 0;
+        do {
+            writeLock.lock();
+            try {
+                deleted = saTokenStoreMapper.deleteExpired(now, BATCH_SIZE);
+            } finally {
+                writeLock.unlock();
+            }
+            total += deleted;
+        } while (deleted == BATCH_SIZE);
+        log.debug("Deleted {} expired Sa-Token rows.", total);
+    }
+
+    @Override
+    @PreDestroy
+    public void destroy() {
+        flush();
+    }
+
+    /**
+     * Get the entry of a key from the near-cache or the table; unwritten changes are applied over the table row
+     *
+     * @param key key
+     * @return entry, or null if missing or expired
+     */
+    private Entry load(String key) {
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(key, false);
+        if (entry == null) {
+            SaTokenStore row = saTokenStoreMapper.selectById(key);
+            if (row == null) {
+                return null;
+            }
+            entry = new Entry(row.getTokenValue(), row.getExpireAt());
+            PendingWrite write = pending.get(key);
+            if (write != null) {
+                entry = new Entry(write.value() != null ? write.value() : entry.value(),
+                        write.expireSet() ? write.expireAt() : entry.expireAt());
+            }
+            cache.put(key, entry);
+        }
+        if (entry.isExpired(now)) {
+            cache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static Long expireAt(long timeout) {
+        return timeout == NEVER_EXPIRE ? null : System.currentTimeMillis() + timeout * 1000;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,43 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements executed by the current request, keyed by mapper statement id; only tracked between begin and end on
+ * the request thread
+ */
+public class SqlRequestContext {
+
+    private static final ThreadLocal<Map<String, Integer>> COUNTS = new ThreadLocal<>();
+
+    /**
+     * Start counting statements on this thread
+     */
+    public static void begin() {
+        COUNTS.set(new HashMap<>());
+    }
+
+    /**
+     * Count one execution of a statement; ignored outside a request
+     *
+     * @param statementId mapper statement id
+     */
+    public static void record(String statementId) {
+        Map<String, Integer> counts = COUNTS.get();
+        if (counts != null) {
+            counts.merge(statementId, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Stop counting and return the counts of the request
+     *
+     * @return executions per statement id; empty if begin wasn't called
+     */
+    public static Map<String, Integer> end() {
+        Map<String, Integer> counts = COUNTS.get();
+        COUNTS.remove();
+        return counts == null ? Map.of() : counts;
+    }
+}
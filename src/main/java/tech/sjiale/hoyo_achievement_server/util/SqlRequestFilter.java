@@ -0,0 +1,45 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the mapper statements of each request and warns when one statement runs more often than the threshold,
+ * which usually means a query or update inside a loop (N+1)
+ */
+@Slf4j
+@Component
+public class SqlRequestFilter extends OncePerRequestFilter {
+
+    @Value("${app.sql.repeat-threshold:20}")
+    private int repeatThreshold;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlRequestContext.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Map<String, Integer> counts = SqlRequestContext.end();
+            int total = counts.values().stream().mapToInt(Integer::intValue).sum();
+            counts.forEach((statementId, count) -> {
+                if (count > repeatThreshold) {
+                    log.warn("Possible N+1: {} ran {} times in {} {} ({} statements in total).", statementId, count,
+                            request.getMethod(), request.getRequestURI(), total);
+                }
+            });
+            log.debug("{} {} executed {} statements.", request.getMethod(), request.getRequestURI(), total);
+        }
+    }
+}
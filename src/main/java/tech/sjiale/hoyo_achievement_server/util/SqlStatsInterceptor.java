@@ -0,0 +1,150 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tech.sjiale.hoyo_achievement_server.dto.SqlStatementStats;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times every mapper statement: keeps a latency histogram and row count per statement id, logs slow statements with
+ * their parameters redacted and counts statements per request for SqlRequestFilter. MyBatis-Plus registers every
+ * Interceptor bean with its session factory.
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+                        BoundSql.class})
+})
+public class SqlStatsInterceptor implements Interceptor {
+
+    // Upper bounds of the histogram buckets in milliseconds; the last bucket is unbounded
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    @Value("${app.sql.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+
+    private final Map<String, Stats> statsById = new ConcurrentHashMap<>();
+
+    private static class Stats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+
+        private Stats() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos, long rowCount) {
+            count.increment();
+            rows.add(rowCount);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets[bucketOf(nanos)].increment();
+        }
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long nanos = System.nanoTime() - start;
+
+        String statementId = statement.getId();
+        statsById.computeIfAbsent(statementId, id -> new Stats()).record(nanos, rowCount(result));
+        SqlRequestContext.record(statementId);
+        RequestTiming.record("db", nanos);
+
+        if (nanos >= slowThresholdMs * 1_000_000) {
+            Object parameter = invocation.getArgs()[1];
+            BoundSql boundSql = invocation.getArgs().length == 6
+                    ? (BoundSql) invocation.getArgs()[5]
+                    : statement.getBoundSql(parameter);
+            log.warn("Slow SQL {} took {} ms: {} | params: {}", statementId, nanos / 1_000_000,
+                    boundSql.getSql().replaceAll("\\s+", " "), redact(boundSql));
+        }
+        return result;
+    }
+
+    /**
+     * Get the statistics of every statement executed since startup, slowest total time first
+     *
+     * @return list of SqlStatementStats
+     */
+    public List<SqlStatementStats> snapshot() {
+        List<SqlStatementStats> list = new ArrayList<>(statsById.size());
+        for (Map.Entry<String, Stats> entry : statsById.entrySet()) {
+            Stats stats = entry.getValue();
+            long count = stats.count.sum();
+            double totalMs = stats.totalNanos.sum() / 1e6;
+
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < stats.buckets.length; i++) {
+                String bound = i < BUCKET_BOUNDS_MS.length ? "<=" + BUCKET_BOUNDS_MS[i] + "ms" : "+Inf";
+                histogram.put(bound, stats.buckets[i].sum());
+            }
+            list.add(new SqlStatementStats(entry.getKey(), count, stats.rows.sum(), totalMs,
+                    count == 0 ? 0 : totalMs / count, stats.maxNanos.get() / 1e6, histogram));
+        }
+        list.sort(Comparator.comparingDouble(SqlStatementStats::totalMs).reversed());
+        return list;
+    }
+
+    private static int bucketOf(long nanos) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (nanos <= BUCKET_BOUNDS_MS[i] * 1_000_000) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    /**
+     * Count the rows of a statement result; a batch executor reports no row count until it flushes
+     *
+     * @param result query list or update count
+     * @return row count
+     */
+    private static long rowCount(Object result) {
+        if (result instanceof Collection<?> collection) return collection.size();
+        if (result instanceof Integer updated && updated > 0) return updated;
+        return 0;
+    }
+
+    /**
+     * Describe the bound parameters by name and type only, values may hold passwords or tokens
+     *
+     * @param boundSql bound SQL
+     * @return redacted parameter list
+     */
+    private static String redact(BoundSql boundSql) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        boundSql.getParameterMappings().forEach(mapping -> joiner.add(mapping.getProperty() + ":"
+                + (mapping.getJavaType() == null ? "?" : mapping.getJavaType().getSimpleName()) + "=***"));
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,278 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.listener.SaTokenEventCenter;
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.stp.parameter.SaLoginParameter;
+import cn.dev33.satoken.stp.parameter.SaLogoutParameter;
+import cn.dev33.satoken.stp.parameter.enums.SaLogoutMode;
+import cn.dev33.satoken.stp.parameter.enums.SaLogoutRange;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.signers.JWTSigner;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import lombok.extern.slf4j.Slf4j;
+import tech.sjiale.hoyo_achievement_server.service.TokenRevocationService;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Self-contained login tokens signed with HMAC-SHA256, for deployments where every node must accept any token. The
+ * token carries the user id, expiry and the login extras (role and account ownership epoch), so validating a request
+ * needs no token store lookup; logouts and user-wide revocations go to the TokenRevocationService instead of deleting
+ * a stored mapping. Safe mode and sessions still use the configured SaTokenDao.
+ */
+@Slf4j
+public class StpLogicForSignedToken extends StpLogic {
+
+    public static final String EXTRA_ROLE = "role";
+    public static final String EXTRA_ACCOUNT_EPOCH = "epoch";
+
+    private static final String LOGIN_TYPE = "loginType";
+    private static final String LOGIN_ID = "loginId";
+    private static final String DEVICE_TYPE = "deviceType";
+    private static final String EFFECTIVE_UNTIL = "eff";
+    private static final String TOKEN_ID = "jti";
+    private static final String LOGIN_AT = "loginAt";
+    private static final Set<String> RESERVED = Set.of(LOGIN_TYPE, LOGIN_ID, DEVICE_TYPE, EFFECTIVE_UNTIL, TOKEN_ID,
+            LOGIN_AT);
+
+    // Verified tokens; the expiry and revocation are still checked on every use
+    private static final int VERIFIED_CACHE_SIZE = 10000;
+
+    /**
+     * Verified content of a token
+     *
+     * @param loginId    login id
+     * @param deviceType device type
+     * @param effUntil   expire time in epoch millis, -1 never expires
+     * @param tokenId    random token id
+     * @param loginAt    issue time in epoch millis
+     * @param extras     login extras
+     */
+    private record Claims(String loginId, String deviceType, long effUntil, String tokenId, long loginAt,
+                          Map<String, Object> extras) {
+        boolean isExpired(long now) {
+            return effUntil != SaTokenDao.NEVER_EXPIRE && effUntil <= now;
+        }
+    }
+
+    private final JWTSigner signer;
+    private final TokenRevocationService tokenRevocationService;
+    private final LRUCache<String, Claims> verified = CacheUtil.newLRUCache(VERIFIED_CACHE_SIZE);
+
+    public StpLogicForSignedToken(String secret, TokenRevocationService tokenRevocationService) {
+        super(StpUtil.TYPE);
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("app.satoken.secret must be at least 32 bytes in stateless mode.");
+        }
+        this.signer = JWTSignerUtil.hs256(secret.getBytes(StandardCharsets.UTF_8));
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * Get the account ownership epoch the current login was issued at
+     *
+     * @return epoch, 0 if the login doesn't carry one
+     */
+    public static long currentAccountEpoch() {
+        if (!StpUtil.getStpLogic().isSupportExtra()) {
+            return 0;
+        }
+        return StpUtil.getExtra(EXTRA_ACCOUNT_EPOCH) instanceof Number epoch ? epoch.longValue() : 0;
+    }
+
+    @Override
+    public String createTokenValue(Object loginId, String deviceType, long timeout, Map<String, Object> extraData) {
+        long now = System.currentTimeMillis();
+        JWT jwt = JWT.create()
+                .setPayload(LOGIN_TYPE, loginType)
+                .setPayload(LOGIN_ID, loginId)
+                .setPayload(DEVICE_TYPE, deviceType)
+                .setPayload(EFFECTIVE_UNTIL, timeout == SaTokenDao.NEVER_EXPIRE
+                        ? SaTokenDao.NEVER_EXPIRE : now + timeout * 1000)
+                .setPayload(TOKEN_ID, IdUtil.fastSimpleUUID())
+                .setPayload(LOGIN_AT, now);
+        if (extraData != null) {
+            extraData.forEach(jwt::setPayload);
+        }
+        return jwt.sign(signer);
+    }
+
+    /**
+     * Issue a signed token; nothing is written to the token store
+     */
+    @Override
+    public String createLoginSession(Object id, SaLoginParameter loginParameter) {
+        checkLoginArgs(id, loginParameter);
+        String tokenValue = createTokenValue(id, loginParameter.getDeviceType(), loginParameter.getTimeout(),
+                loginParameter.getExtraData());
+        SaTokenEventCenter.doLogin(loginType, id, tokenValue, loginParameter);
+        return tokenValue;
+    }
+
+    @Override
+    public String getLoginIdNotHandle(String tokenValue) {
+        Claims claims = verify(tokenValue);
+        if (claims == null) {
+            return null;
+        }
+        if (claims.isExpired(System.currentTimeMillis())) {
+            return NotLoginException.TOKEN_TIMEOUT;
+        }
+        Long userId = toUserId(claims.loginId());
+        if (userId == null || tokenRevocationService.isRevoked(claims.tokenId(), userId, claims.loginAt())) {
+            return null;
+        }
+        return claims.loginId();
+    }
+
+    /**
+     * Roles of the current login come from the token; other ids fall back to the StpInterface
+     */
+    @Override
+    public List<String> getRoleList(Object loginId) {
+        Claims claims = verify(getTokenValue());
+        if (claims != null && claims.loginId().equals(String.valueOf(loginId))
+                && claims.extras().get(EXTRA_ROLE) != null) {
+            return List.of(claims.extras().get(EXTRA_ROLE).toString());
+        }
+        return super.getRoleList(loginId);
+    }
+
+    @Override
+    public Object getExtra(String key) {
+        return getExtra(getTokenValue(), key);
+    }
+
+    @Override
+    public Object getExtra(String tokenValue, String key) {
+        Claims claims = verify(tokenValue);
+        return claims == null ? null : claims.extras().get(key);
+    }
+
+    @Override
+    public boolean isSupportExtra() {
+        return true;
+    }
+
+    @Override
+    public boolean isSupportShareToken() {
+        return false;
+    }
+
+    @Override
+    public long getTokenTimeout(String tokenValue) {
+        Claims claims = verify(tokenValue);
+        long now = System.currentTimeMillis();
+        if (claims == null || claims.isExpired(now)) {
+            return SaTokenDao.NOT_VALUE_EXPIRE;
+        }
+        if (claims.effUntil() == SaTokenDao.NEVER_EXPIRE) {
+            return SaTokenDao.NEVER_EXPIRE;
+        }
+        return (claims.effUntil() - now) / 1000;
+    }
+
+    /**
+     * Log out the current token only; the other tokens of the account are not known without a store
+     */
+    @Override
+    public void logout(SaLogoutParameter logoutParameter) {
+        super.logout(logoutParameter.setRange(SaLogoutRange.TOKEN));
+    }
+
+    /**
+     * Revoke one token until it expires
+     */
+    @Override
+    public void _logoutByTokenValue(String tokenValue, SaLogoutParameter logoutParameter) {
+        Claims claims = verify(tokenValue);
+        if (claims == null) {
+            return;
+        }
+        tokenRevocationService.revokeToken(claims.tokenId(),
+                claims.effUntil() == SaTokenDao.NEVER_EXPIRE ? null : claims.effUntil());
+
+        SaLogoutMode mode = logoutParameter.getMode();
+        if (mode == SaLogoutMode.KICKOUT) {
+            SaTokenEventCenter.doKickout(loginType, claims.loginId(), tokenValue);
+        } else if (mode == SaLogoutMode.REPLACED) {
+            SaTokenEventCenter.doReplaced(loginType, claims.loginId(), tokenValue);
+        } else {
+            SaTokenEventCenter.doLogout(loginType, claims.loginId(), tokenValue);
+        }
+    }
+
+    /**
+     * Revoke every token issued to the user so far
+     */
+    @Override
+    public void _logout(Object loginId, SaLogoutParameter logoutParameter) {
+        Long userId = toUserId(String.valueOf(loginId));
+        if (userId == null) {
+            return;
+        }
+        tokenRevocationService.revokeUser(userId);
+        log.info("Revoke all tokens of user {}.", userId);
+    }
+
+    /**
+     * Check the signature and login type of a token and read its content
+     *
+     * @param tokenValue token
+     * @return Claims, or null if the token is missing, malformed or not signed by this server
+     */
+    private Claims verify(String tokenValue) {
+        if (tokenValue == null || tokenValue.isEmpty()) {
+            return null;
+        }
+        Claims claims = verified.get(tokenValue, false);
+        if (claims != null) {
+            return claims;
+        }
+
+        JSONObject payload;
+        try {
+            JWT jwt = JWT.of(tokenValue);
+            if (!jwt.verify(signer)) {
+                return null;
+            }
+            payload = jwt.getPayloads();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        if (!loginType.equals(payload.getStr(LOGIN_TYPE)) || payload.getStr(LOGIN_ID) == null) {
+            return null;
+        }
+
+        Map<String, Object> extras = new HashMap<>();
+        payload.forEach((key, value) -> {
+            if (!RESERVED.contains(key)) {
+                extras.put(key, value);
+            }
+        });
+        claims = new Claims(payload.getStr(LOGIN_ID), payload.getStr(DEVICE_TYPE),
+                payload.getLong(EFFECTIVE_UNTIL, 0L), payload.getStr(TOKEN_ID), payload.getLong(LOGIN_AT, 0L),
+                Map.copyOf(extras));
+        verified.put(tokenValue, claims);
+        return claims;
+    }
+
+    private static Long toUserId(String loginId) {
+        try {
+            return Long.valueOf(loginId);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
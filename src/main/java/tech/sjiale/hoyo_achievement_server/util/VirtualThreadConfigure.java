@@ -0,0 +1,55 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Extra setup of the virtual thread mode (spring.threads.virtual.enabled=true), in which Spring Boot already runs
+ * Tomcat requests on virtual threads
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfigure {
+
+    /**
+     * Wrap the data source so no more callers than the pool size hold a connection at once
+     *
+     * @param environment Environment
+     * @return BeanPostProcessor
+     */
+    @Bean
+    public static BeanPostProcessor jdbcPermitPostProcessor(Environment environment) {
+        int maxConnections = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        long timeoutMs = environment.getProperty("app.jdbc.permit-timeout-ms", Long.class, 60000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof JdbcPermitDataSource)) {
+                    log.info("Cap JDBC use of data source '{}' at {} connections.", beanName, maxConnections);
+                    return new JdbcPermitDataSource(dataSource, maxConnections, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Log virtual threads pinned to their carrier
+     *
+     * @param environment Environment
+     * @return PinnedThreadMonitor
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public PinnedThreadMonitor pinnedThreadMonitor(Environment environment) {
+        long thresholdMs = environment.getProperty("app.threads.pinned-threshold-ms", Long.class, 20L);
+        return new PinnedThreadMonitor(Duration.ofMillis(thresholdMs));
+    }
+}
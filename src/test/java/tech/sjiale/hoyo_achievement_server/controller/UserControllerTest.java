@@ -0,0 +1,118 @@
+package tech.sjiale.hoyo_achievement_server.controller;
+
+import cn.dev33.satoken.stp.StpLogic;
+import cn.dev33.satoken.stp.StpUtil;
+import cn.dev33.satoken.stp.parameter.SaLoginParameter;
+import cn.dev33.satoken.util.SaResult;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.springframework.http.HttpStatus;
+import tech.sjiale.hoyo_achievement_server.dto.ServiceResponse;
+import tech.sjiale.hoyo_achievement_server.dto.user_request.LoginRequest;
+import tech.sjiale.hoyo_achievement_server.entity.User;
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserRole;
+import tech.sjiale.hoyo_achievement_server.entity.nume.UserStatus;
+import tech.sjiale.hoyo_achievement_server.service.LoginThrottleService;
+import tech.sjiale.hoyo_achievement_server.service.PasswordService;
+import tech.sjiale.hoyo_achievement_server.service.UserService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.when;
+
+class UserControllerTest {
+
+    private static final String USERNAME = "tester";
+    private static final String PASSWORD = "Passw0rd!";
+
+    private UserService userService;
+    private PasswordService passwordService;
+    private UserController controller;
+    private HttpServletRequest httpRequest;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        passwordService = mock(PasswordService.class);
+        LoginThrottleService loginThrottleService = mock(LoginThrottleService.class);
+        doReturn(ServiceResponse.success("ok")).when(loginThrottleService).tryAcquire(anyString(), any());
+        when(passwordService.matches(anyString(), anyString())).thenReturn(true);
+        controller = new UserController(userService, passwordService, loginThrottleService);
+        httpRequest = mock(HttpServletRequest.class);
+        when(httpRequest.getRemoteAddr()).thenReturn("127.0.0.1");
+    }
+
+    @Test
+    void disabledUserIsRefused() {
+        when(userService.getUserByName(USERNAME)).thenReturn(ServiceResponse.success("ok", user(UserStatus.DISABLED)));
+
+        try (MockedStatic<StpUtil> stpUtil = mockStatic(StpUtil.class)) {
+            SaResult result = controller.doLogin(request(), httpRequest);
+
+            assertThat(result.getCode()).isEqualTo(HttpStatus.FORBIDDEN.value());
+            stpUtil.verify(() -> StpUtil.login(any(), any(SaLoginParameter.class)), never());
+        }
+    }
+
+    @Test
+    void userDisabledWhileLoggingInIsLoggedOut() {
+        when(userService.getUserByName(USERNAME)).thenReturn(ServiceResponse.success("ok", user(UserStatus.ACTIVE)));
+        when(userService.getUserById(1L)).thenReturn(ServiceResponse.success("ok", user(UserStatus.DISABLED)));
+
+        try (MockedStatic<StpUtil> stpUtil = mockStatic(StpUtil.class)) {
+            stubLogin(stpUtil);
+
+            SaResult result = controller.doLogin(request(), httpRequest);
+
+            assertThat(result.getCode()).isEqualTo(HttpStatus.FORBIDDEN.value());
+            stpUtil.verify(() -> StpUtil.logoutByTokenValue("token"));
+        }
+    }
+
+    @Test
+    void activeUserLogsIn() {
+        when(userService.getUserByName(USERNAME)).thenReturn(ServiceResponse.success("ok", user(UserStatus.ACTIVE)));
+        when(userService.getUserById(1L)).thenReturn(ServiceResponse.success("ok", user(UserStatus.ACTIVE)));
+
+        try (MockedStatic<StpUtil> stpUtil = mockStatic(StpUtil.class)) {
+            stubLogin(stpUtil);
+
+            SaResult result = controller.doLogin(request(), httpRequest);
+
+            assertThat(result.getCode()).isEqualTo(SaResult.CODE_SUCCESS);
+            stpUtil.verify(() -> StpUtil.login(any(), any(SaLoginParameter.class)));
+            stpUtil.verify(() -> StpUtil.logoutByTokenValue(anyString()), never());
+        }
+    }
+
+    private static void stubLogin(MockedStatic<StpUtil> stpUtil) {
+        StpLogic stpLogic = mock(StpLogic.class);
+        stpUtil.when(StpUtil::getStpLogic).thenReturn(stpLogic);
+        stpUtil.when(StpUtil::createSaLoginParameter).thenReturn(new SaLoginParameter());
+        stpUtil.when(StpUtil::getTokenValue).thenReturn("token");
+    }
+
+    private static LoginRequest request() {
+        LoginRequest request = new LoginRequest();
+        request.setUsername(USERNAME);
+        request.setPassword(PASSWORD);
+        return request;
+    }
+
+    private static User user(UserStatus status) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(USERNAME);
+        user.setPassword("$2a$10$hash");
+        user.setRole(UserRole.USER);
+        user.setStatus(status);
+        return user;
+    }
+}
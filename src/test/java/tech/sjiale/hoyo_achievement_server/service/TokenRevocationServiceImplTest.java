@@ -0,0 +1,107 @@
+package tech.sjiale.hoyo_achievement_server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.sjiale.hoyo_achievement_server.entity.TokenRevocation;
+import tech.sjiale.hoyo_achievement_server.mapper.TokenRevocationMapper;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceImplTest {
+
+    private TokenRevocationMapper mapper;
+    private TokenRevocationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(TokenRevocationMapper.class);
+        when(mapper.selectSince(anyLong(), anyLong())).thenReturn(List.of());
+        service = new TokenRevocationServiceImpl(mapper);
+        ReflectionTestUtils.setField(service, "tokenTimeout", 2592000L);
+    }
+
+    @Test
+    void revokedTokenIsRejectedAndWritten() {
+        long now = System.currentTimeMillis();
+        service.revokeToken("t1", now + 60_000);
+
+        assertThat(service.isRevoked("t1", 1L, now)).isTrue();
+        assertThat(service.isRevoked("t2", 1L, now)).isFalse();
+
+        ArgumentCaptor<TokenRevocation> row = ArgumentCaptor.forClass(TokenRevocation.class);
+        verify(mapper).upsert(row.capture());
+        assertThat(row.getValue().getRevocationKey()).isEqualTo("token:t1");
+        assertThat(row.getValue().getExpireAt()).isEqualTo(now + 60_000);
+    }
+
+    @Test
+    void revokedUserRejectsOnlyTokensIssuedBefore() {
+        long before = System.currentTimeMillis() - 1000;
+        service.revokeUser(7L);
+        long after = System.currentTimeMillis() + 1000;
+
+        assertThat(service.isRevoked("a", 7L, before)).isTrue();
+        assertThat(service.isRevoked("b", 7L, after)).isFalse();
+        assertThat(service.isRevoked("c", 8L, before)).isFalse();
+    }
+
+    @Test
+    void pollMergesRowsOfOtherNodes() {
+        long now = System.currentTimeMillis();
+        when(mapper.selectSince(anyLong(), anyLong())).thenReturn(List.of(
+                new TokenRevocation("token:remote", now - 10, now + 60_000),
+                new TokenRevocation("user:5", now - 5000, now + 60_000),
+                // An older revocation of the same user doesn't move the cut-off back
+                new TokenRevocation("user:5", now - 20_000, now + 60_000)));
+        service.poll();
+
+        assertThat(service.isRevoked("remote", 1L, now)).isTrue();
+        assertThat(service.isRevoked("x", 5L, now - 6000)).isTrue();
+        assertThat(service.isRevoked("x", 5L, now - 4000)).isFalse();
+    }
+
+    @Test
+    void pollReadsAgainWithOverlap() {
+        service.poll();
+        service.poll();
+
+        ArgumentCaptor<Long> since = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> now = ArgumentCaptor.forClass(Long.class);
+        verify(mapper, times(2)).selectSince(since.capture(), now.capture());
+        assertThat(since.getAllValues().get(0)).isZero();
+        assertThat(since.getAllValues().get(1)).isEqualTo(now.getAllValues().get(0) - 30_000);
+    }
+
+    @Test
+    void pollForgetsExpiredEntries() {
+        long now = System.currentTimeMillis();
+        service.revokeToken("short", now + 50);
+        ReflectionTestUtils.setField(service, "tokenTimeout", 0L);
+        service.revokeUser(9L);
+
+        when(mapper.selectSince(anyLong(), anyLong())).thenReturn(List.of());
+        ReflectionTestUtils.setField(service, "lastPoll", 0L);
+        sleep(100);
+        service.poll();
+
+        assertThat(service.isRevoked("short", 1L, now)).isFalse();
+        assertThat(service.isRevoked("x", 9L, now)).isFalse();
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
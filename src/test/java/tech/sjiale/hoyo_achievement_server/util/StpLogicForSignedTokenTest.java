@@ -0,0 +1,146 @@
+package tech.sjiale.hoyo_achievement_server.util;
+
+import cn.dev33.satoken.dao.SaTokenDao;
+import cn.dev33.satoken.exception.NotLoginException;
+import cn.dev33.satoken.stp.parameter.SaLogoutParameter;
+import cn.hutool.jwt.JWT;
+import cn.hutool.jwt.signers.JWTSignerUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import tech.sjiale.hoyo_achievement_server.mapper.TokenRevocationMapper;
+import tech.sjiale.hoyo_achievement_server.service.TokenRevocationServiceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class StpLogicForSignedTokenTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private TokenRevocationServiceImpl revocations;
+    private StpLogicForSignedToken logic;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new TokenRevocationServiceImpl(mock(TokenRevocationMapper.class));
+        ReflectionTestUtils.setField(revocations, "tokenTimeout", 2592000L);
+        logic = new StpLogicForSignedToken(SECRET, revocations);
+    }
+
+    @Test
+    void shortSecretIsRefused() {
+        assertThatThrownBy(() -> new StpLogicForSignedToken("too short", revocations))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void issuedTokenIsAccepted() {
+        String token = logic.createTokenValue(42L, "PC", 3600, Map.of(StpLogicForSignedToken.EXTRA_ROLE, "ADMIN",
+                StpLogicForSignedToken.EXTRA_ACCOUNT_EPOCH, 3));
+
+        assertThat(logic.getLoginIdNotHandle(token)).isEqualTo("42");
+        assertThat(logic.getExtra(token, StpLogicForSignedToken.EXTRA_ROLE)).isEqualTo("ADMIN");
+        assertThat(((Number) logic.getExtra(token, StpLogicForSignedToken.EXTRA_ACCOUNT_EPOCH)).longValue())
+                .isEqualTo(3);
+        assertThat(logic.getTokenTimeout(token)).isBetween(3590L, 3600L);
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        String token = sign("fedcba9876543210fedcba9876543210", claims("login", 42L, future()));
+
+        assertThat(logic.getLoginIdNotHandle(token)).isNull();
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = logic.createTokenValue(42L, "PC", 3600, null);
+        String[] parts = token.split("\\.");
+        String forged = sign("fedcba9876543210fedcba9876543210", claims("login", 1L, future())).split("\\.")[1];
+
+        assertThat(logic.getLoginIdNotHandle(parts[0] + "." + forged + "." + parts[2])).isNull();
+    }
+
+    @Test
+    void truncatedTokenIsRejected() {
+        String token = logic.createTokenValue(42L, "PC", 3600, null);
+
+        assertThat(logic.getLoginIdNotHandle(token.substring(0, token.lastIndexOf('.')))).isNull();
+        assertThat(logic.getLoginIdNotHandle(token.substring(0, token.length() - 3))).isNull();
+        assertThat(logic.getLoginIdNotHandle("not-a-token")).isNull();
+        assertThat(logic.getLoginIdNotHandle("")).isNull();
+        assertThat(logic.getLoginIdNotHandle(null)).isNull();
+    }
+
+    @Test
+    void tokenOfAnotherLoginTypeIsRejected() {
+        String token = sign(SECRET, claims("admin", 42L, future()));
+
+        assertThat(logic.getLoginIdNotHandle(token)).isNull();
+    }
+
+    @Test
+    void expiredTokenTimesOut() {
+        String token = sign(SECRET, claims("login", 42L, System.currentTimeMillis() - 1000));
+
+        assertThat(logic.getLoginIdNotHandle(token)).isEqualTo(NotLoginException.TOKEN_TIMEOUT);
+        assertThat(logic.getTokenTimeout(token)).isEqualTo(SaTokenDao.NOT_VALUE_EXPIRE);
+    }
+
+    @Test
+    void tokenWithoutTimeoutNeverExpires() {
+        String token = logic.createTokenValue(42L, "PC", SaTokenDao.NEVER_EXPIRE, null);
+
+        assertThat(logic.getLoginIdNotHandle(token)).isEqualTo("42");
+        assertThat(logic.getTokenTimeout(token)).isEqualTo(SaTokenDao.NEVER_EXPIRE);
+    }
+
+    @Test
+    void logoutRevokesOnlyThatToken() {
+        String first = logic.createTokenValue(42L, "PC", 3600, null);
+        String second = logic.createTokenValue(42L, "PC", 3600, null);
+
+        logic._logoutByTokenValue(first, new SaLogoutParameter());
+
+        assertThat(logic.getLoginIdNotHandle(first)).isNull();
+        assertThat(logic.getLoginIdNotHandle(second)).isEqualTo("42");
+    }
+
+    @Test
+    void userLogoutRevokesTokensIssuedBefore() {
+        long now = System.currentTimeMillis();
+        String before = sign(SECRET, claims("login", 42L, future(), now - 1000));
+        String otherUser = sign(SECRET, claims("login", 43L, future(), now - 1000));
+
+        logic._logout(42L, new SaLogoutParameter());
+        String after = sign(SECRET, claims("login", 42L, future(), System.currentTimeMillis() + 1000));
+
+        assertThat(logic.getLoginIdNotHandle(before)).isNull();
+        assertThat(logic.getLoginIdNotHandle(after)).isEqualTo("42");
+        assertThat(logic.getLoginIdNotHandle(otherUser)).isEqualTo("43");
+    }
+
+    private static long future() {
+        return System.currentTimeMillis() + 3_600_000;
+    }
+
+    private static Map<String, Object> claims(String loginType, long loginId, long effUntil) {
+        return claims(loginType, loginId, effUntil, System.currentTimeMillis());
+    }
+
+    private static Map<String, Object> claims(String loginType, long loginId, long effUntil, long loginAt) {
+        return Map.of("loginType", loginType, "loginId", loginId, "deviceType", "PC", "eff", effUntil,
+                "jti", Long.toHexString(System.nanoTime()), "loginAt", loginAt);
+    }
+
+    private static String sign(String secret, Map<String, Object> claims) {
+        JWT jwt = JWT.create();
+        claims.forEach(jwt::setPayload);
+        return jwt.sign(JWTSignerUtil.hs256(secret.getBytes(StandardCharsets.UTF_8)));
+    }
+}